@@ -0,0 +1,61 @@
+package mstdemo.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of every headless algorithm on every generated graph kind.
+ * Graphs are generated once per trial from a fixed seed, and their
+ * adjacency index is built in setup so only the algorithm is measured.
+ *
+ * Narrow the matrix from the command line, for example
+ *     java -jar benchmarks/target/benchmarks.jar -p algorithm=prim -p edges=100000
+ * euclidean only looks at the vertex positions, so its knn and uniform rows
+ * are the ones to compare against the graph MSTs:
+ *     java -jar benchmarks/target/benchmarks.jar -p algorithm=euclidean,kruskal -p kind=knn,uniform
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-Djava.awt.headless=true"})
+public class AlgorithmBenchmark {
+
+    public static final long SEED = 20240501L;
+
+    @Param({"kruskal", "filterKruskal", "externalKruskal", "euclidean", "prim", "boruvka", "spanningForest", "bfs", "parallelBfs", "dfs", "astar", "bidirectional", "biconnected"})
+    public String algorithm;
+
+    @Param({"uniform", "grid", "knn", "complete", "powerlaw"})
+    public String kind;
+
+    @Param({"1000", "100000", "10000000"})
+    public int edges;
+
+    private Object graph;
+
+    @Setup(Level.Trial)
+    public void generate() throws Throwable {
+        graph = Targets.generate(kind, edges, SEED);
+        // build the adjacency index up front by running once
+        Targets.solve("bfs", graph);
+    }
+
+    @Benchmark
+    public Object solve() throws Throwable {
+        return Targets.solve(algorithm, graph);
+    }
+}
@@ -0,0 +1,46 @@
+package mstdemo.bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * The demo's classes live in the unnamed package, which Java code in a named
+ * package cannot import, and JMH refuses benchmarks in the unnamed package.
+ * These handles bridge the two. They are static final, so the JIT inlines
+ * them like direct calls.
+ */
+final class Targets {
+
+    // (String kind, int edges, long seed) -> GraphData
+    static final MethodHandle GENERATE;
+
+    // (String algorithm, GraphData graph) -> MstResult or SearchResult
+    static final MethodHandle SOLVE;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> graphData = Class.forName("GraphData");
+            GENERATE = lookup.findStatic(Class.forName("GraphGenerator"), "generate",
+                            MethodType.methodType(graphData, String.class, int.class, long.class))
+                    .asType(MethodType.methodType(Object.class, String.class, int.class, long.class));
+            SOLVE = lookup.findStatic(Class.forName("Solver"), "run",
+                            MethodType.methodType(Object.class, String.class, graphData))
+                    .asType(MethodType.methodType(Object.class, String.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Targets() {
+    }
+
+    static Object generate(String kind, int edges, long seed) throws Throwable {
+        return (Object) GENERATE.invokeExact(kind, edges, seed);
+    }
+
+    static Object solve(String algorithm, Object graph) throws Throwable {
+        return (Object) SOLVE.invokeExact(algorithm, graph);
+    }
+}
@@ -0,0 +1,139 @@
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Headless A* search for the minimum weight path from start to target.
+ *
+ * The heuristic is the straight line distance to the target times
+ * heuristicScale, the largest factor that no edge weight falls below
+ * (weight >= heuristicScale * length on every edge). By the triangle
+ * inequality it then never overestimates and is consistent, so every
+ * vertex is expanded at most once and the first time the target comes
+ * off the heap its path is the shortest. Edges weighted by their length
+ * get a scale of 1; the squared lengths the gui uses get the length of
+ * the shortest edge, which still prunes but less.
+ */
+public class AStarEngine {
+
+    public final GraphData graph;
+    public final int arity;
+    public final double heuristicScale;
+
+    public IndexedDHeap Q;
+    public BitSet closed;
+    public double[] dist;
+
+    public AStarEngine(GraphData graph) {
+        this(graph, admissibleScale(graph));
+    }
+
+    /**
+     * @param heuristicScale - factor on the straight line distance, 0 makes this Dijkstra
+     */
+    public AStarEngine(GraphData graph, double heuristicScale) {
+        this.graph = graph;
+        this.arity = IndexedDHeap.arityFor(graph.vertexCount, graph.edgeCount);
+        this.heuristicScale = heuristicScale;
+    }
+
+    /**
+     * @return - smallest weight / length ratio over the edges, 0 if an edge
+     *           is cheaper than free or no edge has a length
+     */
+    public static double admissibleScale(GraphData g) {
+        double scale = Double.POSITIVE_INFINITY;
+        for (int e = 0; e < g.edgeCount; e++) {
+            double length = Math.sqrt(g.lengthSquared(g.edgeU[e], g.edgeV[e]));
+            if (length > 0) {
+                scale = Math.min(scale, g.weight[e] / length);
+            }
+        }
+        if (scale == Double.POSITIVE_INFINITY || !(scale > 0)) {
+            return 0;
+        }
+        return scale;
+    }
+
+    /**
+     * @return - lower bound on the path weight from v to target
+     */
+    public double heuristic(int v, int target) {
+        if (target < 0 || heuristicScale == 0) {
+            return 0;
+        }
+        double dx = graph.x[v] - graph.x[target];
+        double dy = graph.y[v] - graph.y[target];
+        return heuristicScale * Math.sqrt(dx * dx + dy * dy);
+    }
+
+    public SearchResult run(int start, int target) {
+        return run(start, target, StepListener.NONE);
+    }
+
+    /**
+     * @param target - vertex to stop at, or -1 for shortest paths to the whole component
+     */
+    public SearchResult run(int start, int target, StepListener listener) {
+        GraphData g = graph;
+        AlgorithmMetrics metrics = new AlgorithmMetrics("astar", g);
+        metrics.phase("adjacency");
+        AdjacencyIndex adj = g.adjacency();
+        int n = g.vertexCount;
+        SearchResult result = new SearchResult(g, start, target);
+        long examined = 0, inserts = 0, polls = 0, decreases = 0;
+
+        Q = new IndexedDHeap(n, arity);
+        closed = new BitSet(n);
+        dist = new double[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+
+        metrics.phase("search");
+        dist[start] = 0;
+        Q.insert(start, heuristic(start, target));
+        inserts++;
+        while (!Q.isEmpty()) {
+            int u = Q.poll(); // lowest dist + heuristic
+            polls++;
+            closed.set(u);
+            result.expanded++;
+
+            // FOUND DESIRED NODE
+            if (u == target) {
+                result.found = true;
+                listener.targetFound(u, result.parentEdge[u]);
+                break;
+            }
+            listener.vertexExpanded(u);
+
+            examined += adj.degree(u);
+            for (int i = adj.begin(u); i < adj.end(u); i++) {
+                int v = adj.target[i];
+                if (closed.get(v)) {
+                    continue;
+                }
+                int e = adj.edge[i];
+                double d = dist[u] + g.weight[e];
+                if (d < dist[v]) {
+                    dist[v] = d;
+                    result.parentEdge[v] = e;
+                    if (Q.contains(v)) {
+                        Q.decreaseKey(v, d + heuristic(v, target));
+                        decreases++;
+                    } else {
+                        Q.insert(v, d + heuristic(v, target));
+                        inserts++;
+                    }
+                    listener.vertexReached(v, e);
+                }
+            }
+            listener.vertexFinished(u);
+        }
+        metrics.edgesExamined = examined;
+        metrics.verticesExpanded = result.expanded;
+        metrics.heapInserts = inserts;
+        metrics.heapPolls = polls;
+        metrics.decreaseKeys = decreases;
+        result.metrics = metrics.finish();
+        return result;
+    }
+}
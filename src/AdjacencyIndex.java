@@ -0,0 +1,81 @@
+/**
+ * Compressed sparse row (CSR) adjacency of an undirected graph.
+ *
+ * The neighbours of vertex v are target[begin(v)] .. target[end(v) - 1],
+ * and edge[i] is the id of the edge that leads from v to target[i].
+ * Iterating with these indices allocates nothing, unlike Graph.adjacent().
+ */
+public class AdjacencyIndex {
+
+    public int[] offset = new int[1];
+    public int[] target = new int[0];
+    public int[] edge = new int[0];
+
+    public int vertexCount = 0;
+    public int edgeCount = 0;
+
+    /**
+     * Rebuilds the whole index with a counting sort over the edge endpoints.
+     * Runs in O(V + E).
+     *
+     * @param vertexCount - number of vertices, ids are 0 .. vertexCount-1
+     * @param edgeCount - number of edges, ids are 0 .. edgeCount-1
+     * @param edgeU, edgeV - endpoints of every edge
+     */
+    public void build(int vertexCount, int edgeCount, int[] edgeU, int[] edgeV) {
+        int[] off = new int[vertexCount + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            off[edgeU[e] + 1]++;
+            off[edgeV[e] + 1]++;
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            off[v + 1] += off[v];
+        }
+
+        int[] tgt = new int[2 * edgeCount];
+        int[] eid = new int[2 * edgeCount];
+        int[] fill = new int[vertexCount];
+        System.arraycopy(off, 0, fill, 0, vertexCount);
+        for (int e = 0; e < edgeCount; e++) {
+            int u = edgeU[e], v = edgeV[e];
+            int i = fill[u]++;
+            tgt[i] = v;
+            eid[i] = e;
+            i = fill[v]++;
+            tgt[i] = u;
+            eid[i] = e;
+        }
+
+        this.offset = off;
+        this.target = tgt;
+        this.edge = eid;
+        this.vertexCount = vertexCount;
+        this.edgeCount = edgeCount;
+    }
+
+    /**
+     * Patches in a new isolated vertex without rebuilding.
+     * The new vertex gets id == vertexCount.
+     */
+    public void addVertex() {
+        if (offset.length < vertexCount + 2) {
+            int[] grown = new int[Math.max(vertexCount + 2, offset.length * 2)];
+            System.arraycopy(offset, 0, grown, 0, vertexCount + 1);
+            offset = grown;
+        }
+        offset[vertexCount + 1] = offset[vertexCount];
+        vertexCount++;
+    }
+
+    public int begin(int v) {
+        return offset[v];
+    }
+
+    public int end(int v) {
+        return offset[v + 1];
+    }
+
+    public int degree(int v) {
+        return offset[v + 1] - offset[v];
+    }
+}
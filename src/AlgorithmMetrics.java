@@ -0,0 +1,259 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Counters and phase timings of one engine run.
+ *
+ * The engines count in locals inside their loops and copy the totals in
+ * here once at the end, so the counting costs next to nothing. Every phase
+ * records wall and CPU time of the running thread, and the phases and the
+ * whole run are also committed as Flight Recorder events (mstdemo.AlgorithmPhase,
+ * mstdemo.AlgorithmRun), which only cost anything while a recording has them enabled.
+ * Runs before Flight Recorder was started, from the command line or by jcmd, emit none:
+ *
+ *     java -XX:StartFlightRecording=filename=run.jfr ...
+ *     jfr print --events mstdemo.AlgorithmRun run.jfr
+ *
+ * A counter an algorithm has no use for stays 0.
+ *
+ * Kruskal, Filter-Kruskal, Prim, Borůvka, SpanningForest, BFS, DFS, A* and
+ * bidirectional Dijkstra fill these in; ExternalKruskal and ParallelBfs keep
+ * their own statistics. CPU time is the calling thread's only, so for the
+ * engines that fan out to a ForkJoinPool it leaves out the pool's threads.
+ */
+public class AlgorithmMetrics {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final boolean CPU_TIME = THREADS.isCurrentThreadCpuTimeSupported();
+
+    public final String algorithm;
+    public final int vertices, edges;
+
+    public long edgesExamined = 0;    // edges or adjacency slots looked at
+    public long verticesExpanded = 0; // vertices taken off the queue / stack / heap
+    public long finds = 0;            // union-find lookups
+    public long findSteps = 0;        // parent links followed over all finds
+    public int maxFindDepth = 0;
+    public long unions = 0;
+    public long heapInserts = 0;
+    public long heapPolls = 0;
+    public long decreaseKeys = 0;     // keys actually lowered
+
+    public long wallNanos = 0, cpuNanos = 0; // whole run, cpu is -1 if the JVM can't measure it for this thread
+    public final ArrayList<Phase> phases = new ArrayList<>();
+
+    private final long startWall, startCpu;
+    private Phase current;
+    private PhaseEvent currentEvent;
+
+    /**
+     * One named stretch of a run, e.g. building the adjacency or the main loop.
+     */
+    public static class Phase {
+        public final String name;
+        public long wallNanos, cpuNanos;
+
+        Phase(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String toString() {
+            return name + " " + wallNanos / 1000 + " us";
+        }
+    }
+
+    /**
+     * Starts the clock for the whole run.
+     */
+    public AlgorithmMetrics(String algorithm, GraphData g) {
+        this.algorithm = algorithm;
+        this.vertices = g.vertexCount;
+        this.edges = g.edgeCount;
+        startWall = System.nanoTime();
+        startCpu = cpuTime();
+    }
+
+    /**
+     * Ends the running phase, if any, and starts the next one.
+     */
+    public void phase(String name) {
+        endPhase();
+        current = new Phase(name);
+        current.wallNanos = System.nanoTime();
+        current.cpuNanos = cpuTime();
+        if (recording()) {
+            currentEvent = new PhaseEvent();
+            currentEvent.begin();
+        }
+    }
+
+    /**
+     * Ends the last phase and the run, and commits the run's event.
+     *
+     * @return - this
+     */
+    public AlgorithmMetrics finish() {
+        endPhase();
+        wallNanos = System.nanoTime() - startWall;
+        cpuNanos = cpuSince(startCpu);
+
+        RunEvent event = recording() ? new RunEvent() : null;
+        if (event != null && event.shouldCommit()) {
+            event.algorithm = algorithm;
+            event.vertices = vertices;
+            event.edges = edges;
+            event.edgesExamined = edgesExamined;
+            event.verticesExpanded = verticesExpanded;
+            event.finds = finds;
+            event.findSteps = findSteps;
+            event.unions = unions;
+            event.heapInserts = heapInserts;
+            event.heapPolls = heapPolls;
+            event.decreaseKeys = decreaseKeys;
+            event.wallTime = wallNanos;
+            event.cpuTime = cpuNanos;
+            event.commit();
+        }
+        return this;
+    }
+
+    private void endPhase() {
+        if (current == null) {
+            return;
+        }
+        current.wallNanos = System.nanoTime() - current.wallNanos;
+        current.cpuNanos = cpuSince(current.cpuNanos);
+        phases.add(current);
+
+        if (currentEvent != null) {
+            currentEvent.end();
+            if (currentEvent.shouldCommit()) {
+                currentEvent.algorithm = algorithm;
+                currentEvent.phase = current.name;
+                currentEvent.cpuTime = current.cpuNanos;
+                currentEvent.commit();
+            }
+        }
+        current = null;
+        currentEvent = null;
+    }
+
+    // the first event class loaded would start up all of Flight Recorder, which takes a good
+    // fraction of a second, so there are no events until something else has started it
+    private static boolean recording() {
+        return FlightRecorder.isInitialized();
+    }
+
+    // -1 if it can't be measured, which includes every virtual thread
+    private static long cpuTime() {
+        return CPU_TIME ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    private static long cpuSince(long start) {
+        return start < 0 ? -1 : cpuTime() - start;
+    }
+
+    public double averageFindDepth() {
+        return finds == 0 ? 0 : (double) findSteps / finds;
+    }
+
+    /**
+     * @return - every counter and time by name, in a fixed order, for printing or exporting
+     */
+    public Map<String, Long> toMap() {
+        Map<String, Long> map = new LinkedHashMap<>();
+        map.put("vertices", (long) vertices);
+        map.put("edges", (long) edges);
+        map.put("edgesExamined", edgesExamined);
+        map.put("verticesExpanded", verticesExpanded);
+        map.put("finds", finds);
+        map.put("findSteps", findSteps);
+        map.put("maxFindDepth", (long) maxFindDepth);
+        map.put("unions", unions);
+        map.put("heapInserts", heapInserts);
+        map.put("heapPolls", heapPolls);
+        map.put("decreaseKeys", decreaseKeys);
+        map.put("wallNanos", wallNanos);
+        map.put("cpuNanos", cpuNanos);
+        for (Phase p : phases) {
+            map.put(p.name + ".wallNanos", p.wallNanos);
+            map.put(p.name + ".cpuNanos", p.cpuNanos);
+        }
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder(algorithm);
+        for (Map.Entry<String, Long> entry : toMap().entrySet()) {
+            if (entry.getValue() != 0) {
+                s.append(", ").append(entry.getKey()).append(" = ").append(entry.getValue());
+            }
+        }
+        return s.toString();
+    }
+
+    @Name("mstdemo.AlgorithmRun")
+    @Label("Algorithm Run")
+    @Category({"MST Demo", "Algorithms"})
+    @Description("Counters of one engine run")
+    @StackTrace(false)
+    static class RunEvent extends Event {
+        @Label("Algorithm")
+        String algorithm;
+        @Label("Vertices")
+        int vertices;
+        @Label("Edges")
+        int edges;
+        @Label("Edges Examined")
+        long edgesExamined;
+        @Label("Vertices Expanded")
+        long verticesExpanded;
+        @Label("Finds")
+        long finds;
+        @Label("Find Steps")
+        long findSteps;
+        @Label("Unions")
+        long unions;
+        @Label("Heap Inserts")
+        long heapInserts;
+        @Label("Heap Polls")
+        long heapPolls;
+        @Label("Decrease Keys")
+        long decreaseKeys;
+        @Label("Wall Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long wallTime;
+        @Label("CPU Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long cpuTime;
+    }
+
+    @Name("mstdemo.AlgorithmPhase")
+    @Label("Algorithm Phase")
+    @Category({"MST Demo", "Algorithms"})
+    @Description("One phase of an engine run, the event's duration is its wall time")
+    @StackTrace(false)
+    static class PhaseEvent extends Event {
+        @Label("Algorithm")
+        String algorithm;
+        @Label("Phase")
+        String phase;
+        @Label("CPU Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long cpuTime;
+    }
+}
@@ -0,0 +1,51 @@
+/**
+ * Play state shared by the animations of one Graph: paused or playing,
+ * how many steps per second to show, and single steps asked for while paused.
+ * Only touched on the EDT, by the buttons and by the animation frame timers.
+ */
+public class AnimationControl {
+
+    public static final double AS_FAST_AS_POSSIBLE = Double.POSITIVE_INFINITY;
+    public static final double DEFAULT_SPEED = 2;
+
+    public boolean paused = true;
+    public double stepsPerSecond = DEFAULT_SPEED;
+    public int pendingSteps = 0;
+
+    public void pause() {
+        paused = true;
+    }
+
+    public void resume() {
+        paused = false;
+        pendingSteps = 0;
+    }
+
+    /**
+     * Lets a paused animation show one more step.
+     */
+    public void step() {
+        if (paused) {
+            pendingSteps++;
+        }
+    }
+
+    /**
+     * @param stepsPerSecond - greater than 0, or AS_FAST_AS_POSSIBLE
+     */
+    public void setSpeed(double stepsPerSecond) {
+        if (!(stepsPerSecond > 0)) {
+            throw new IllegalArgumentException("speed must be positive, got " + stepsPerSecond);
+        }
+        this.stepsPerSecond = stepsPerSecond;
+    }
+
+    /**
+     * @return - single steps asked for since the last call
+     */
+    public int takePendingSteps() {
+        int n = pendingSteps;
+        pendingSteps = 0;
+        return n;
+    }
+}
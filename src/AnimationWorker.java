@@ -0,0 +1,108 @@
+import javax.lang.model.type.NullType;
+import javax.swing.*;
+
+/**
+ * Base for the animated algorithms.
+ *
+ * A subclass runs one of the headless engines in animate(), handing it the
+ * steps listener. That listener only records each step into a bounded
+ * StepEventBuffer, so the engine never sleeps or touches the gui.
+ * A Swing timer then replays the recorded steps onto the subclass's own
+ * StepListener methods on the EDT, where they color the nodes and edges.
+ * Each frame replays as many steps as graph.control's speed allows and
+ * repaints once, however many steps that was.
+ */
+public abstract class AnimationWorker extends SwingWorker<Boolean, NullType> implements StepListener {
+
+    public static final int FRAME_MS = 16;
+    public static final int BUFFER_SIZE = 1 << 14;
+    // most time a frame spends replaying, so the gui stays responsive at full speed
+    public static final long FRAME_WORK_NANOS = 10_000_000L;
+    // a late frame may catch up at most this much time
+    public static final long MAX_FRAME_GAP_NANOS = 100_000_000L;
+
+    public Graph graph;
+
+    public final StepEventBuffer events = new StepEventBuffer(BUFFER_SIZE);
+    private final Timer frameTimer = new Timer(FRAME_MS, e -> frame());
+    private long lastFrame;
+    private double credit = 0; // steps owed, fraction included
+
+    public AnimationWorker(Graph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Runs the engine, on the worker thread.
+     *
+     * @param steps - listener to give the engine
+     * @return - the result of doInBackground()
+     */
+    protected abstract Boolean animate(StepListener steps) throws Exception;
+
+    @Override
+    protected final Boolean doInBackground() throws Exception {
+        SwingUtilities.invokeLater(() -> {
+            lastFrame = System.nanoTime();
+            frameTimer.start();
+        });
+        try {
+            return animate(events);
+        } finally {
+            events.close();
+        }
+    }
+
+    /**
+     * One tick of the frame timer: replays the steps this frame is owed.
+     */
+    private void frame() {
+        if (isCancelled()) {
+            frameTimer.stop();
+            return;
+        }
+        long now = System.nanoTime();
+        long elapsed = Math.min(now - lastFrame, MAX_FRAME_GAP_NANOS);
+        lastFrame = now;
+
+        AnimationControl control = graph.control;
+        int steps;
+        if (control.paused) {
+            credit = 0;
+            steps = control.takePendingSteps();
+        } else if (control.stepsPerSecond == AnimationControl.AS_FAST_AS_POSSIBLE) {
+            steps = Integer.MAX_VALUE;
+        } else {
+            credit += control.stepsPerSecond * elapsed / 1e9;
+            steps = (int) Math.min(credit, Integer.MAX_VALUE);
+            credit -= steps;
+        }
+
+        if (steps > 0) {
+            int replayed = events.replay(this, steps, now + FRAME_WORK_NANOS);
+            if (control.paused && replayed < steps) {
+                // the engine hasn't produced them yet, keep the user's clicks
+                control.pendingSteps += steps - replayed;
+            }
+            if (replayed > 0) {
+                graph.refreshGraph();
+            }
+        }
+        if (events.isDrained()) {
+            frameTimer.stop();
+        }
+    }
+
+    public Node node(int id) {
+        return graph.nodes.get(id);
+    }
+
+    public Edge edge(int id) {
+        return graph.edges.get(id);
+    }
+
+    @Override
+    protected void done() {
+
+    }
+}
@@ -0,0 +1,405 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Headless batch mode: solves many graph files and streams one result row
+ * per file and algorithm as CSV or JSON lines.
+ *
+ *     java -jar mst-demo.jar batch [-a kruskal,prim,bfs,dfs] [-f csv|jsonl]
+ *                                  [-j parallelism] [-o out] file-or-dir...
+ *
+ * Directories are walked for every regular file in them. On Java 21 and
+ * later each file gets a virtual thread of its own, so waiting on the disk
+ * costs no platform thread, while two semaphores bound the actual work: at
+ * most parallelism graphs are being solved, and at most twice that are held
+ * in memory, so the next files load while the current ones solve. Rows are written as
+ * soon as they are ready, in whatever order the files finish. A file that
+ * fails to load, corrupt ones included, gets a row per algorithm with only
+ * the error filled in and counts as a failure. The totals and the
+ * throughput go to stderr at the end.
+ */
+public class BatchRunner {
+
+    public static final String[] DEFAULT_ALGORITHMS = {"kruskal", "prim", "bfs", "dfs"};
+
+    public final List<String> algorithms;
+    public final boolean jsonLines;
+    public final int parallelism;
+    public final Writer out;
+
+    private final Semaphore solving;
+    private final Semaphore loaded;
+    private final ReentrantLock writeLock = new ReentrantLock(); // a lock rather than synchronized, so waiting doesn't pin a carrier thread
+    public final AtomicInteger graphs = new AtomicInteger();
+    public final AtomicInteger failures = new AtomicInteger();
+
+    public BatchRunner(List<String> algorithms, boolean jsonLines, int parallelism, Writer out) {
+        this.algorithms = algorithms;
+        this.jsonLines = jsonLines;
+        this.parallelism = parallelism;
+        this.out = out;
+        this.solving = new Semaphore(parallelism);
+        this.loaded = new Semaphore(2 * parallelism);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        List<String> algorithms = Arrays.asList(DEFAULT_ALGORITHMS);
+        boolean jsonLines = false;
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        Path output = null;
+        List<Path> inputs = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (i + 1 == args.length && arg.startsWith("-")) {
+                usage("missing value for " + arg);
+            }
+            switch (arg) {
+                case "-a":
+                    algorithms = Arrays.asList(args[++i].split(","));
+                    for (String a : algorithms) {
+                        if (!Arrays.asList(Solver.ALGORITHMS).contains(a)) {
+                            usage("unknown algorithm " + a);
+                        }
+                    }
+                    break;
+                case "-f":
+                    String format = args[++i];
+                    if (!format.equals("csv") && !format.equals("jsonl")) {
+                        usage("unknown format " + format);
+                    }
+                    jsonLines = format.equals("jsonl");
+                    break;
+                case "-j":
+                    try {
+                        parallelism = Integer.parseInt(args[++i]);
+                    } catch (NumberFormatException e) {
+                        parallelism = 0;
+                    }
+                    if (parallelism < 1) {
+                        usage("parallelism must be a positive number");
+                    }
+                    break;
+                case "-o":
+                    output = Paths.get(args[++i]);
+                    break;
+                default:
+                    if (arg.startsWith("-")) {
+                        usage("unknown option " + arg);
+                    }
+                    inputs.add(Paths.get(arg));
+            }
+        }
+        if (inputs.isEmpty()) {
+            usage("no input files");
+        }
+
+        Writer writer = output == null
+                ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                : Files.newBufferedWriter(output, StandardCharsets.UTF_8);
+        BatchRunner runner = new BatchRunner(algorithms, jsonLines, parallelism, writer);
+        long start = System.nanoTime();
+        try {
+            runner.run(files(inputs));
+        } finally {
+            writer.flush();
+            if (output != null) {
+                writer.close();
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        int graphs = runner.graphs.get();
+        System.err.printf(Locale.ROOT, "%d graphs, %d failed, in %.3f s, %.1f graphs/s%n",
+                graphs, runner.failures.get(), seconds, graphs / seconds);
+        if (runner.failures.get() > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void usage(String problem) {
+        System.err.println(problem);
+        System.err.println("usage: batch [-a algorithm,...] [-f csv|jsonl] [-j parallelism] [-o file] file-or-dir...");
+        System.err.println("algorithms: " + String.join(", ", Solver.ALGORITHMS));
+        System.exit(2);
+    }
+
+    /**
+     * @return - the given files, and the regular files under the given directories in name order
+     */
+    public static List<Path> files(List<Path> inputs) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Path input : inputs) {
+            if (Files.isDirectory(input)) {
+                try (Stream<Path> walk = Files.walk(input)) {
+                    walk.filter(Files::isRegularFile).sorted().forEach(files::add);
+                }
+            } else {
+                files.add(input);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Solves every file and returns once all of their rows are written.
+     */
+    public void run(List<Path> files) throws IOException {
+        writeHeader();
+        ExecutorService executor = executor();
+        for (Path file : files) {
+            executor.submit(() -> {
+                try {
+                    solve(file);
+                } catch (IOException | InterruptedException e) {
+                    failures.incrementAndGet();
+                    System.err.println(file + ": " + e);
+                }
+            });
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A virtual thread per task on Java 21 and later. The build targets 17,
+     * so the factory is looked up at run time. Older JVMs get a fixed pool as
+     * big as the number of graphs allowed in memory, since no more tasks than
+     * that could make progress anyway.
+     */
+    private ExecutorService executor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(2 * parallelism);
+        }
+    }
+
+    private void solve(Path file) throws IOException, InterruptedException {
+        loaded.acquire();
+        try {
+            long loadStart = System.nanoTime();
+            GraphData g;
+            try {
+                g = GraphFile.open(file).toGraphData();
+            } catch (IOException | RuntimeException e) {
+                failures.incrementAndGet();
+                for (String algorithm : algorithms) {
+                    write(new Row(file, algorithm, null, 0, 0, e));
+                }
+                return;
+            }
+            long loadNanos = System.nanoTime() - loadStart;
+            graphs.incrementAndGet();
+
+            boolean failed = false;
+            solving.acquire();
+            try {
+                for (String algorithm : algorithms) {
+                    long solveStart = System.nanoTime();
+                    Row row;
+                    try {
+                        Object result = Solver.run(algorithm, g);
+                        row = new Row(file, algorithm, g, loadNanos, System.nanoTime() - solveStart, null);
+                        row.describe(result);
+                    } catch (RuntimeException e) {
+                        failed = true;
+                        row = new Row(file, algorithm, g, loadNanos, System.nanoTime() - solveStart, e);
+                    }
+                    write(row);
+                }
+            } finally {
+                solving.release();
+            }
+            if (failed) {
+                failures.incrementAndGet();
+            }
+        } finally {
+            loaded.release();
+        }
+    }
+
+    /**
+     * One line of output, the numbers an algorithm doesn't produce are left empty.
+     */
+    static class Row {
+        final Path file;
+        final String algorithm;
+        final int vertices, edges;
+        final long loadNanos, solveNanos;
+        final Exception error;
+
+        int resultEdges = -1;                  // tree edges of an MST, search tree edges of a search
+        double weight = Double.NaN;            // MST weight or shortest path weight, NaN for none or an unreachable target
+        long expanded = -1;                    // vertices expanded by a search
+        AlgorithmMetrics metrics;
+
+        Row(Path file, String algorithm, GraphData g, long loadNanos, long solveNanos, Exception error) {
+            this.file = file;
+            this.algorithm = algorithm;
+            this.vertices = g == null ? -1 : g.vertexCount;
+            this.edges = g == null ? -1 : g.edgeCount;
+            this.loadNanos = loadNanos;
+            this.solveNanos = solveNanos;
+            this.error = error;
+        }
+
+        void describe(Object result) {
+            if (result instanceof MstResult) {
+                MstResult mst = (MstResult) result;
+                resultEdges = mst.edgeCount;
+                weight = mst.weight;
+                metrics = mst.metrics;
+            } else if (result instanceof SearchResult) {
+                SearchResult search = (SearchResult) result;
+                resultEdges = 0;
+                for (int e : search.parentEdge) {
+                    if (e != -1) {
+                        resultEdges++;
+                    }
+                }
+                if (search.target >= 0 && search.found) {
+                    weight = search.pathWeight();
+                }
+                expanded = search.expanded;
+                metrics = search.metrics;
+            } else if (result instanceof BiconnectivityEngine) {
+                resultEdges = ((BiconnectivityEngine) result).bridgeCount;
+            }
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        if (!jsonLines) {
+            out.write("file,algorithm,vertices,edges,result_edges,weight,expanded,load_ms,solve_ms,error\n");
+        }
+    }
+
+    private void write(Row row) throws IOException {
+        String line = jsonLines ? json(row) : csv(row);
+        writeLock.lock();
+        try {
+            out.write(line);
+            out.write('\n');
+            out.flush();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static String csv(Row row) {
+        StringBuilder s = new StringBuilder();
+        s.append(csvField(row.file.toString())).append(',')
+         .append(row.algorithm).append(',')
+         .append(optional(row.vertices)).append(',')
+         .append(optional(row.edges)).append(',')
+         .append(optional(row.resultEdges)).append(',')
+         .append(hasWeight(row) ? Double.toString(row.weight) : "").append(',')
+         .append(optional(row.expanded)).append(',')
+         .append(millis(row.loadNanos)).append(',')
+         .append(millis(row.solveNanos)).append(',')
+         .append(row.error == null ? "" : csvField(String.valueOf(row.error.getMessage())));
+        return s.toString();
+    }
+
+    private static String json(Row row) {
+        StringBuilder s = new StringBuilder("{");
+        s.append("\"file\":").append(jsonString(row.file.toString()))
+         .append(",\"algorithm\":").append(jsonString(row.algorithm));
+        if (row.vertices >= 0) {
+            s.append(",\"vertices\":").append(row.vertices)
+             .append(",\"edges\":").append(row.edges);
+        }
+        if (row.resultEdges >= 0) {
+            s.append(",\"resultEdges\":").append(row.resultEdges);
+        }
+        if (hasWeight(row)) {
+            s.append(",\"weight\":").append(row.weight);
+        }
+        if (row.expanded >= 0) {
+            s.append(",\"expanded\":").append(row.expanded);
+        }
+        s.append(",\"loadMs\":").append(millis(row.loadNanos))
+         .append(",\"solveMs\":").append(millis(row.solveNanos));
+        if (row.metrics != null) {
+            s.append(",\"metrics\":{");
+            boolean first = true;
+            for (Map.Entry<String, Long> entry : row.metrics.toMap().entrySet()) {
+                s.append(first ? "" : ",").append(jsonString(entry.getKey())).append(':').append(entry.getValue());
+                first = false;
+            }
+            s.append('}');
+        }
+        if (row.error != null) {
+            s.append(",\"error\":").append(jsonString(String.valueOf(row.error.getMessage())));
+        }
+        return s.append('}').toString();
+    }
+
+    // a missing weight is an empty CSV field and no JSON key, never Infinity or NaN
+    private static boolean hasWeight(Row row) {
+        return Double.isFinite(row.weight);
+    }
+
+    private static String optional(long value) {
+        return value < 0 ? "" : Long.toString(value);
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String jsonString(String value) {
+        StringBuilder s = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    s.append("\\\"");
+                    break;
+                case '\\':
+                    s.append("\\\\");
+                    break;
+                case '\n':
+                    s.append("\\n");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        s.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        s.append(c);
+                    }
+            }
+        }
+        return s.append('"').toString();
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ * Headless breadth first search from start until target is reached.
+ * The queue is a plain int array, since every vertex is enqueued at most once.
+ */
+public class BfsEngine {
+
+    public final GraphData graph;
+
+    public BfsEngine(GraphData graph) {
+        this.graph = graph;
+    }
+
+    public SearchResult run(int start, int target) {
+        return run(start, target, StepListener.NONE);
+    }
+
+    /**
+     * @param target - vertex to stop at, or -1 to search the whole component
+     */
+    public SearchResult run(int start, int target, StepListener listener) {
+        GraphData g = graph;
+        AlgorithmMetrics metrics = new AlgorithmMetrics("bfs", g);
+        metrics.phase("adjacency");
+        AdjacencyIndex adj = g.adjacency();
+        metrics.phase("search");
+        SearchResult result = new SearchResult(g, start, target);
+        boolean[] visited = new boolean[g.vertexCount];
+
+        int[] Q = new int[g.vertexCount];
+        int head = 0, tail = 0;
+        long examined = 0;
+        Q[tail++] = start;
+        visited[start] = true;
+
+        if (start == target) {
+            result.found = true;
+            listener.targetFound(start, -1);
+            return finish(result, metrics, examined);
+        }
+
+        while (head < tail) {
+            int u = Q[head++]; // deque
+            result.expanded++;
+            listener.vertexExpanded(u);
+            examined += adj.degree(u);
+
+            // find all un-visited adjacent vertices and add them to queue
+            for (int i = adj.begin(u); i < adj.end(u); i++) {
+                int v = adj.target[i];
+                if (visited[v]) {
+                    continue;
+                }
+                visited[v] = true;
+                result.parentEdge[v] = adj.edge[i];
+
+                // FOUND DESIRED NODE
+                if (v == target) {
+                    result.found = true;
+                    listener.targetFound(v, adj.edge[i]);
+                    // the rest of u's edges were never looked at
+                    return finish(result, metrics, examined - (adj.end(u) - i - 1));
+                }
+
+                Q[tail++] = v;
+                listener.vertexReached(v, adj.edge[i]);
+            }
+            listener.vertexFinished(u);
+        }
+        return finish(result, metrics, examined);
+    }
+
+    private static SearchResult finish(SearchResult result, AlgorithmMetrics metrics, long examined) {
+        metrics.edgesExamined = examined;
+        metrics.verticesExpanded = result.expanded;
+        result.metrics = metrics.finish();
+        return result;
+    }
+}
@@ -0,0 +1,138 @@
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Headless Tarjan bridges, articulation points and biconnected components
+ * for every component of an undirected graph.
+ *
+ * One depth first search numbers the vertices in discovery order and works
+ * out low[v], the earliest vertex reachable from v's subtree over a single
+ * back edge. A tree edge p-v is a bridge when low[v] > disc[p]; p is an
+ * articulation point when low[v] >= disc[p] for some child v, or when it is
+ * a root with two or more children. The search is iterative with an
+ * adjacency cursor per vertex and an explicit edge stack for the components,
+ * so each edge is looked at twice in all and deep graphs can't overflow the
+ * call stack. The parent is skipped by edge id, not by vertex, so parallel
+ * edges are never bridges.
+ */
+public class BiconnectivityEngine {
+
+    public final GraphData graph;
+
+    public BitSet bridges;            // by edge id
+    public BitSet articulationPoints; // by vertex id
+    public int[] edgeComponent;       // biconnected component of each edge, -1 for self loops
+    public int componentCount = 0;
+    public int bridgeCount = 0;
+    public int articulationCount = 0;
+
+    public BiconnectivityEngine(GraphData graph) {
+        this.graph = graph;
+    }
+
+    public void run() {
+        run(StepListener.NONE);
+    }
+
+    /**
+     * The listener sees the underlying search: vertexReached for tree edges,
+     * vertexFinished when a vertex is popped and edgeAccepted for each bridge.
+     */
+    public void run(StepListener listener) {
+        GraphData g = graph;
+        AdjacencyIndex adj = g.adjacency();
+        int n = g.vertexCount;
+
+        bridges = new BitSet(g.edgeCount);
+        articulationPoints = new BitSet(n);
+        edgeComponent = new int[g.edgeCount];
+        Arrays.fill(edgeComponent, -1);
+        componentCount = 0;
+        bridgeCount = 0;
+        articulationCount = 0;
+
+        int[] disc = new int[n]; // discovery time, -1 while unvisited
+        int[] low = new int[n];
+        int[] parentEdge = new int[n];
+        int[] cursor = new int[n];
+        Arrays.fill(disc, -1);
+
+        int[] S = new int[n];
+        int[] edgeStack = new int[g.edgeCount]; // each edge is pushed at most once
+        int edgeTop = 0;
+        int time = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (disc[root] != -1) {
+                continue;
+            }
+            disc[root] = low[root] = time++;
+            parentEdge[root] = -1;
+            cursor[root] = adj.begin(root);
+            int rootChildren = 0;
+            int top = 0;
+            S[top++] = root;
+
+            while (top > 0) {
+                int u = S[top - 1]; // peek
+                if (cursor[u] < adj.end(u)) {
+                    int i = cursor[u]++;
+                    int v = adj.target[i];
+                    int e = adj.edge[i];
+                    if (e == parentEdge[u]) {
+                        continue;
+                    }
+                    if (disc[v] == -1) {
+                        // tree edge, descend
+                        disc[v] = low[v] = time++;
+                        parentEdge[v] = e;
+                        cursor[v] = adj.begin(v);
+                        edgeStack[edgeTop++] = e;
+                        S[top++] = v;
+                        if (u == root) {
+                            rootChildren++;
+                        }
+                        listener.vertexReached(v, e);
+                    } else if (disc[v] < disc[u]) {
+                        // back edge to an ancestor; seen from the ancestor's side it is skipped below
+                        low[u] = Math.min(low[u], disc[v]);
+                        edgeStack[edgeTop++] = e;
+                    }
+                    continue;
+                }
+
+                // all of u's edges are done, hand its low value up to the parent
+                top--;
+                listener.vertexFinished(u);
+                if (u == root) {
+                    continue;
+                }
+                int e = parentEdge[u];
+                int p = g.other(e, u);
+                low[p] = Math.min(low[p], low[u]);
+                if (low[u] > disc[p]) {
+                    bridges.set(e);
+                    bridgeCount++;
+                    listener.edgeAccepted(e);
+                }
+                if (low[u] >= disc[p]) {
+                    // p separates u's subtree, which with the edge to p is one component
+                    if (p != root && !articulationPoints.get(p)) {
+                        articulationPoints.set(p);
+                        articulationCount++;
+                    }
+                    int f;
+                    do {
+                        f = edgeStack[--edgeTop];
+                        edgeComponent[f] = componentCount;
+                    } while (f != e);
+                    componentCount++;
+                }
+            }
+            if (rootChildren > 1) {
+                articulationPoints.set(root);
+                articulationCount++;
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Headless bidirectional Dijkstra for the minimum weight path from start to target.
+ *
+ * One search grows from start and one from target, always advancing the
+ * one with the smaller heap. Whenever an edge joins a vertex of one search
+ * to a vertex the other has reached, the path through it is a candidate.
+ * The searches stop once the two heap minimums add up to at least the best
+ * candidate, since no path left to find can be shorter. Each search only
+ * has to reach about half the distance, so on geometric graphs the two
+ * balls together cover far less than one ball around start would.
+ */
+public class BidirectionalDijkstraEngine {
+
+    public final GraphData graph;
+    public final int arity;
+
+    public IndexedDHeap forward, backward;
+    public BitSet settledForward, settledBackward;
+    public double[] distForward, distBackward;
+    public int[] parentBackward; // edge towards target in the backward tree
+
+    // edge where the best path crosses from the forward to the backward tree
+    public int meetEdge = -1;
+    private int meetForward = -1; // its end in the forward tree
+    public double distance = Double.POSITIVE_INFINITY;
+
+    // counted by scan() over both searches
+    private long examined, inserts, decreases;
+
+    public BidirectionalDijkstraEngine(GraphData graph) {
+        this.graph = graph;
+        this.arity = IndexedDHeap.arityFor(graph.vertexCount, graph.edgeCount);
+    }
+
+    public SearchResult run(int start, int target) {
+        return run(start, target, StepListener.NONE);
+    }
+
+    /**
+     * result.parentEdge holds the forward tree, with the path from start to
+     * target threaded through it so that result.path() works as usual.
+     */
+    public SearchResult run(int start, int target, StepListener listener) {
+        GraphData g = graph;
+        AlgorithmMetrics metrics = new AlgorithmMetrics("bidirectional", g);
+        metrics.phase("adjacency");
+        g.adjacency();
+        int n = g.vertexCount;
+        SearchResult result = new SearchResult(g, start, target);
+        examined = inserts = decreases = 0;
+        meetEdge = -1;
+        meetForward = -1;
+        distance = Double.POSITIVE_INFINITY;
+
+        forward = new IndexedDHeap(n, arity);
+        backward = new IndexedDHeap(n, arity);
+        settledForward = new BitSet(n);
+        settledBackward = new BitSet(n);
+        distForward = new double[n];
+        distBackward = new double[n];
+        Arrays.fill(distForward, Double.POSITIVE_INFINITY);
+        Arrays.fill(distBackward, Double.POSITIVE_INFINITY);
+        parentBackward = new int[n];
+        Arrays.fill(parentBackward, -1);
+
+        if (start == target) {
+            distance = 0;
+            result.found = true;
+            listener.targetFound(start, -1);
+            return finish(result, metrics);
+        }
+
+        metrics.phase("search");
+        distForward[start] = 0;
+        forward.insert(start, 0);
+        distBackward[target] = 0;
+        backward.insert(target, 0);
+        inserts += 2;
+
+        while (!forward.isEmpty() && !backward.isEmpty()) {
+            if (forward.keyOf(forward.peek()) + backward.keyOf(backward.peek()) >= distance) {
+                break;
+            }
+            result.expanded++;
+            if (forward.size <= backward.size) {
+                scan(forward, settledForward, distForward, result.parentEdge, distBackward, true, listener);
+            } else {
+                scan(backward, settledBackward, distBackward, parentBackward, distForward, false, listener);
+            }
+        }
+
+        if (meetEdge != -1) {
+            joinPath(result);
+            result.found = true;
+            listener.targetFound(target, result.parentEdge[target]);
+        }
+        return finish(result, metrics);
+    }
+
+    private SearchResult finish(SearchResult result, AlgorithmMetrics metrics) {
+        metrics.edgesExamined = examined;
+        metrics.verticesExpanded = result.expanded;
+        // every scan polls exactly one vertex
+        metrics.heapPolls = result.expanded;
+        metrics.heapInserts = inserts;
+        metrics.decreaseKeys = decreases;
+        result.metrics = metrics.finish();
+        return result;
+    }
+
+    /**
+     * Settles the closest vertex of one search and relaxes its edges.
+     *
+     * @param otherDist - distances of the opposite search, to spot where the two meet
+     * @param isForward - which search this is, so the meeting edge is recorded the right way round
+     */
+    private void scan(IndexedDHeap Q, BitSet settled, double[] dist, int[] parent,
+                      double[] otherDist, boolean isForward, StepListener listener) {
+        GraphData g = graph;
+        AdjacencyIndex adj = g.adjacency();
+        int u = Q.poll();
+        settled.set(u);
+        listener.vertexExpanded(u);
+
+        examined += adj.degree(u);
+        for (int i = adj.begin(u); i < adj.end(u); i++) {
+            int v = adj.target[i];
+            int e = adj.edge[i];
+            double d = dist[u] + g.weight[e];
+
+            // the other search got here, so start .. u - v .. target is a path
+            if (otherDist[v] != Double.POSITIVE_INFINITY && d + otherDist[v] < distance) {
+                distance = d + otherDist[v];
+                meetEdge = e;
+                meetForward = isForward ? u : v;
+            }
+
+            if (settled.get(v) || d >= dist[v]) {
+                continue;
+            }
+            dist[v] = d;
+            parent[v] = e;
+            if (Q.contains(v)) {
+                Q.decreaseKey(v, d);
+                decreases++;
+            } else {
+                Q.insert(v, d);
+                inserts++;
+            }
+            listener.vertexReached(v, e);
+        }
+        listener.vertexFinished(u);
+    }
+
+    /**
+     * Re-hangs the backward half of the path onto result.parentEdge,
+     * pointing each edge back towards start.
+     */
+    private void joinPath(SearchResult result) {
+        int v = graph.other(meetEdge, meetForward);
+        result.parentEdge[v] = meetEdge;
+        while (v != result.target) {
+            int e = parentBackward[v];
+            int next = graph.other(e, v);
+            result.parentEdge[next] = e;
+            v = next;
+        }
+    }
+}
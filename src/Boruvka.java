@@ -0,0 +1,51 @@
+import java.util.ArrayList;
+
+/**
+ * Animates BoruvkaEngine.
+ * Each round's cheapest edges are drawn as they are added to the tree.
+ */
+public class Boruvka extends AnimationWorker {
+
+    public BoruvkaEngine engine;
+
+    public ArrayList<Edge> MST;
+
+    Boruvka(Graph graph) {
+        super(graph);
+        MST = new ArrayList<>();
+    }
+
+    /**
+     * Called when this class is executed
+     *
+     * @return - Minimum Spanning tree of graph
+     */
+    @Override
+    protected Boolean animate(StepListener steps) throws Exception {
+        engine = new BoruvkaEngine(graph.data);
+        engine.run(steps);
+        return true;
+    }
+
+    // highlights edge as part of MST
+    @Override
+    public void edgeAccepted(int edge) {
+        Edge e = edge(edge);
+        MST.add(e);
+        e.setColor(Graph.FINAL_C);
+        e.n1().setColor(Graph.FINAL_C);
+        e.n2().setColor(Graph.FINAL_C);
+    }
+
+    @Override
+    protected void done() {
+        if (Trace.INFO && engine != null) {
+            Trace.log(engine.roundReport().stripTrailing());
+        }
+    }
+
+    public ArrayList<Edge> getMST() {
+        return this.MST;
+    }
+
+}
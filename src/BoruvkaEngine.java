@@ -0,0 +1,203 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Headless Borůvka's algorithm, parallelised on a ForkJoinPool.
+ *
+ * Every round finds the cheapest edge leaving each component in parallel,
+ * adds all of them to the tree, then relabels the vertices and drops edges
+ * that now lie inside one component, also in parallel. The number of
+ * components at least halves each round, so there are O(log V) rounds.
+ * Ties are broken by edge id like EdgeSort, which makes the MST unique
+ * and equal to the one KruskalEngine finds.
+ */
+public class BoruvkaEngine {
+
+    public final GraphData graph;
+    public final ForkJoinPool pool;
+
+    // per round stats
+    public int rounds = 0;
+    public long[] roundNanos = new long[0];
+    public int[] roundComponents = new int[0]; // components left after the round
+    public int[] roundEdges = new int[0];      // edges between components left after the round
+
+    public BoruvkaEngine(GraphData graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    public BoruvkaEngine(GraphData graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.pool = pool;
+    }
+
+    public MstResult run() {
+        return run(StepListener.NONE);
+    }
+
+    /**
+     * The listener is only called from the thread that calls run().
+     */
+    public MstResult run(StepListener listener) {
+        GraphData g = graph;
+        AlgorithmMetrics metrics = new AlgorithmMetrics("boruvka", g);
+        metrics.phase("setup");
+        int n = g.vertexCount;
+        int[] edgeU = g.edgeU, edgeV = g.edgeV;
+        double[] w = g.weight;
+        MstResult mst = new MstResult(n - 1);
+        long examined = 0;
+
+        // comp[v] = representative vertex of v's component
+        int[] comp = new int[n];
+        int[] reps = new int[n];
+        for (int v = 0; v < n; v++) {
+            comp[v] = v;
+            reps[v] = v;
+        }
+        int repCount = n;
+
+        // edges that still connect two components
+        int[] active = new int[g.edgeCount];
+        for (int e = 0; e < active.length; e++) {
+            active[e] = e;
+        }
+        int activeCount = active.length;
+
+        AtomicIntegerArray best = new AtomicIntegerArray(n);
+        UnionFind sets = new UnionFind(n);
+        int[] relabel = new int[n];
+
+        metrics.phase("rounds");
+        while (activeCount > 0) {
+            long start = System.nanoTime();
+            examined += activeCount;
+            for (int i = 0; i < repCount; i++) {
+                best.set(reps[i], -1);
+            }
+
+            // 1) cheapest outgoing edge of every component
+            final int[] act = active;
+            ParallelFor.run(pool, 0, activeCount, ParallelFor.grainFor(pool, activeCount), (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    int e = act[i];
+                    int cu = comp[edgeU[e]], cv = comp[edgeV[e]];
+                    if (cu != cv) {
+                        offer(best, cu, e, w);
+                        offer(best, cv, e, w);
+                    }
+                }
+            });
+
+            // 2) add them to the tree. Two components can pick the same edge, union skips the second
+            for (int i = 0; i < repCount; i++) {
+                int e = best.get(reps[i]);
+                if (e != -1 && sets.union(comp[edgeU[e]], comp[edgeV[e]])) {
+                    mst.add(e, w[e]);
+                    listener.edgeAccepted(e);
+                }
+            }
+
+            // 3) contract: point every vertex at the root of its merged component
+            int newRepCount = 0;
+            for (int i = 0; i < repCount; i++) {
+                int c = reps[i];
+                relabel[c] = sets.find(c);
+                if (relabel[c] == c) {
+                    reps[newRepCount++] = c;
+                }
+            }
+            repCount = newRepCount;
+            ParallelFor.run(pool, 0, n, ParallelFor.grainFor(pool, n), (from, to) -> {
+                for (int v = from; v < to; v++) {
+                    comp[v] = relabel[comp[v]];
+                }
+            });
+
+            // 4) drop edges that are now inside a component
+            int[] kept = keepCrossingEdges(active, activeCount, comp, edgeU, edgeV);
+            active = kept;
+            activeCount = kept.length;
+
+            recordRound(System.nanoTime() - start, repCount, activeCount);
+        }
+        metrics.edgesExamined = examined;
+        metrics.finds = sets.findCalls;
+        metrics.findSteps = sets.findSteps;
+        metrics.maxFindDepth = sets.maxFindDepth;
+        metrics.unions = mst.edgeCount;
+        mst.metrics = metrics.finish();
+        return mst;
+    }
+
+    // lowers best[c] to edge e if e is lighter, lock free
+    private static void offer(AtomicIntegerArray best, int c, int e, double[] w) {
+        while (true) {
+            int current = best.get(c);
+            if (current != -1 && !EdgeSort.less(e, current, w)) {
+                return;
+            }
+            if (best.compareAndSet(c, current, e)) {
+                return;
+            }
+        }
+    }
+
+    // parallel compaction: count per chunk, prefix sum, then copy per chunk
+    private int[] keepCrossingEdges(int[] active, int activeCount, int[] comp, int[] edgeU, int[] edgeV) {
+        int chunks = Math.max(1, Math.min(pool.getParallelism() * 8, activeCount / 1024));
+        int chunkSize = (activeCount + chunks - 1) / chunks;
+        int[] counts = new int[chunks + 1];
+        ParallelFor.run(pool, 0, chunks, 1, (from, to) -> {
+            for (int c = from; c < to; c++) {
+                int count = 0;
+                for (int i = c * chunkSize; i < Math.min(activeCount, (c + 1) * chunkSize); i++) {
+                    int e = active[i];
+                    if (comp[edgeU[e]] != comp[edgeV[e]]) {
+                        count++;
+                    }
+                }
+                counts[c + 1] = count;
+            }
+        });
+        for (int c = 0; c < chunks; c++) {
+            counts[c + 1] += counts[c];
+        }
+        int[] kept = new int[counts[chunks]];
+        ParallelFor.run(pool, 0, chunks, 1, (from, to) -> {
+            for (int c = from; c < to; c++) {
+                int out = counts[c];
+                for (int i = c * chunkSize; i < Math.min(activeCount, (c + 1) * chunkSize); i++) {
+                    int e = active[i];
+                    if (comp[edgeU[e]] != comp[edgeV[e]]) {
+                        kept[out++] = e;
+                    }
+                }
+            }
+        });
+        return kept;
+    }
+
+    private void recordRound(long nanos, int components, int edgesLeft) {
+        roundNanos = Arrays.copyOf(roundNanos, rounds + 1);
+        roundComponents = Arrays.copyOf(roundComponents, rounds + 1);
+        roundEdges = Arrays.copyOf(roundEdges, rounds + 1);
+        roundNanos[rounds] = nanos;
+        roundComponents[rounds] = components;
+        roundEdges[rounds] = edgesLeft;
+        rounds++;
+    }
+
+    public String roundReport() {
+        StringBuilder sb = new StringBuilder();
+        for (int r = 0; r < rounds; r++) {
+            sb.append("Boruvka round ").append(r + 1)
+              .append(": ").append(roundNanos[r] / 1000).append(" us")
+              .append(", components = ").append(roundComponents[r])
+              .append(", edges left = ").append(roundEdges[r])
+              .append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -1,94 +1,51 @@
-import javax.lang.model.type.NullType;
-import javax.swing.*;
-import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Queue;
+/**
+ * Animates BfsEngine from graph.startNode to graph.desiredNode.
+ */
+public class BreadthFirstSearch extends AnimationWorker {
 
-public class BreadthFirstSearch extends SwingWorker <Boolean, NullType>{
-    public Graph graph;
-    public Queue<Node> Q;
+    public BfsEngine engine;
+    public SearchResult result;
 
-    public int SLEEP_TIME = 1000;
+    private Node current;
 
     public BreadthFirstSearch(Graph graph) {
-        this.graph = graph;
-        this.Q = new LinkedList<>();
-
-        if (this.graph.nodes.size() > 10) {
-            this.SLEEP_TIME /= 2;
-        }
+        super(graph);
     }
 
     // performs BFS animation
     @Override
-    protected Boolean doInBackground() throws Exception {
-        for (Node n : graph.nodes) {
-            n.setVisited(false);
-        }
-
-        Q.add(graph.startNode);
-        graph.startNode.setVisited(true);
-
-        while (!Q.isEmpty()) {
-            // gui paused
-            while(graph.isPaused()) {
-                Thread.sleep(1);
-            }
-
-            Node u = Q.poll(); // deque
-            u.setColor(Graph.CURRENT_C);
-            publish();
-            Thread.sleep(SLEEP_TIME);
-
-            // find all un-visited adjacent nodes and add them to queue
-            ArrayList<MyPair> adj = graph.adjacent(u);
-            boolean adjNodeFound = false;
-            for (MyPair pair : adj) {
-                Node adjN = pair.node;
-                Edge adjE = pair.edge;
-
-                if (!adjN.visited) {
-                    // FOUND DESIRED NODE
-                    if (adjN == graph.desiredNode) {
-                        u.setColor(Graph.FINAL_C);
-                        adjN.setColor(Graph.CURRENT_C);
-                        adjE.setColor(Graph.FINAL_C);
-                        publish();
-                        return true;
-                    }
-
-                    adjN.setVisited(true);
-                    Q.add(adjN);
-                    adjN.setColor(Graph.HIGHLIGHT);
-                    adjE.setColor(Graph.FINAL_C);
-                    adjNodeFound = true;
-                }
-            }
-            if (adjNodeFound) {
-                publish();
-                Thread.sleep(SLEEP_TIME);
-            }
+    protected Boolean animate(StepListener steps) throws Exception {
+        engine = new BfsEngine(graph.data);
+        result = engine.run(graph.startNode.id, graph.desiredNode.id, steps);
+        return result.found;
+    }
 
-            u.setColor(Graph.FINAL_C);
-        }
-        return true;
+    @Override
+    public void vertexExpanded(int vertex) {
+        current = node(vertex);
+        current.setColor(Graph.CURRENT_C);
     }
 
-    /**
-     * Called every time publish() is called.
-     * Can safely update GUI here.
-     * Just refreshes the graph. The edge color is set beforehand
-     *
-     * @param chunks - Edge that is being processed
-     */
     @Override
-    protected void process(List<NullType> chunks) {
-        graph.refreshGraph();
+    public void vertexReached(int vertex, int viaEdge) {
+        node(vertex).setColor(Graph.HIGHLIGHT);
+        edge(viaEdge).setColor(Graph.FINAL_C);
     }
 
     @Override
-    protected void done() {
+    public void vertexFinished(int vertex) {
+        node(vertex).setColor(Graph.FINAL_C);
+    }
 
+    // FOUND DESIRED NODE
+    @Override
+    public void targetFound(int vertex, int viaEdge) {
+        if (current != null) {
+            current.setColor(Graph.FINAL_C);
+        }
+        node(vertex).setColor(Graph.CURRENT_C);
+        if (viaEdge != -1) {
+            edge(viaEdge).setColor(Graph.FINAL_C);
+        }
     }
 }
@@ -0,0 +1,102 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * EdgeStream over a channel of fixed size little endian records:
+ * int u, int v, double weight (16 bytes each).
+ * Reads through one reusable buffer, so memory use does not depend on the stream length.
+ */
+public class ChannelEdgeStream implements EdgeStream {
+
+    public static final int RECORD_BYTES = 16;
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+    private boolean eof = false;
+    private int u, v;
+    private double weight;
+
+    public long edgesRead = 0;
+
+    public ChannelEdgeStream(ReadableByteChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        this.buffer.flip(); // start empty
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        if (buffer.remaining() < RECORD_BYTES && !fill()) {
+            return false;
+        }
+        u = buffer.getInt();
+        v = buffer.getInt();
+        weight = buffer.getDouble();
+        edgesRead++;
+        return true;
+    }
+
+    private boolean fill() throws IOException {
+        buffer.compact();
+        while (!eof && buffer.position() < RECORD_BYTES) {
+            if (channel.read(buffer) < 0) {
+                eof = true;
+            }
+        }
+        buffer.flip();
+        if (buffer.remaining() == 0) {
+            return false;
+        }
+        if (buffer.remaining() < RECORD_BYTES) {
+            throw new EOFException("edge stream ends inside a record");
+        }
+        return true;
+    }
+
+    @Override
+    public int u() {
+        return u;
+    }
+
+    @Override
+    public int v() {
+        return v;
+    }
+
+    @Override
+    public double weight() {
+        return weight;
+    }
+
+    /**
+     * Writes every edge of the stream as records to the channel.
+     *
+     * @return - number of edges written
+     */
+    public static long write(EdgeStream edges, WritableByteChannel channel) throws IOException {
+        ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        long count = 0;
+        while (edges.next()) {
+            if (out.remaining() < RECORD_BYTES) {
+                drain(out, channel);
+            }
+            out.putInt(edges.u()).putInt(edges.v()).putDouble(edges.weight());
+            count++;
+        }
+        drain(out, channel);
+        return count;
+    }
+
+    private static void drain(ByteBuffer out, WritableByteChannel channel) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+}
@@ -0,0 +1,102 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Labels the connected components of a graph in parallel.
+ *
+ * Every edge is handed to a lock-free union-find: the two roots are looked
+ * up and the larger one is hung under the smaller with a compare-and-set,
+ * retrying if another thread moved either root first. Since links always
+ * point to a smaller id there can be no cycles whatever order the threads
+ * run in. A second parallel pass resolves every vertex to its root, and the
+ * roots are then numbered 0 .. count-1 in order of their smallest vertex.
+ */
+public class ConnectedComponents {
+
+    public final GraphData graph;
+    public final ForkJoinPool pool;
+
+    public int count = 0;
+    public int[] label; // component of each vertex, 0 .. count-1
+    public int[] size;  // vertices in each component
+
+    public ConnectedComponents(GraphData graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    public ConnectedComponents(GraphData graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.pool = pool;
+    }
+
+    public ConnectedComponents run() {
+        GraphData g = graph;
+        int n = g.vertexCount;
+        int m = g.edgeCount;
+        int[] edgeU = g.edgeU, edgeV = g.edgeV;
+
+        AtomicIntegerArray parent = new AtomicIntegerArray(n);
+        ParallelFor.run(pool, 0, n, ParallelFor.grainFor(pool, n), (from, to) -> {
+            for (int v = from; v < to; v++) {
+                parent.set(v, v);
+            }
+        });
+
+        ParallelFor.run(pool, 0, m, ParallelFor.grainFor(pool, m), (from, to) -> {
+            for (int e = from; e < to; e++) {
+                unite(parent, edgeU[e], edgeV[e]);
+            }
+        });
+
+        // every root is the smallest vertex of its component
+        int[] root = new int[n];
+        ParallelFor.run(pool, 0, n, ParallelFor.grainFor(pool, n), (from, to) -> {
+            for (int v = from; v < to; v++) {
+                root[v] = find(parent, v);
+            }
+        });
+
+        // roots come before the rest of their component, so one pass numbers them in order
+        label = root;
+        int c = 0;
+        for (int v = 0; v < n; v++) {
+            label[v] = root[v] == v ? c++ : label[root[v]];
+        }
+        count = c;
+        size = new int[c];
+        for (int v = 0; v < n; v++) {
+            size[label[v]]++;
+        }
+        return this;
+    }
+
+    private static void unite(AtomicIntegerArray parent, int u, int v) {
+        while (true) {
+            int ru = find(parent, u);
+            int rv = find(parent, v);
+            if (ru == rv) {
+                return;
+            }
+            // only a root may be linked, the CAS fails if ru or rv stopped being one
+            int hi = Math.max(ru, rv), lo = Math.min(ru, rv);
+            if (parent.compareAndSet(hi, hi, lo)) {
+                return;
+            }
+        }
+    }
+
+    // find with path halving; a lost CAS only means somebody else shortened the path
+    private static int find(AtomicIntegerArray parent, int x) {
+        while (true) {
+            int p = parent.get(x);
+            if (p == x) {
+                return x;
+            }
+            int gp = parent.get(p);
+            if (gp != p) {
+                parent.compareAndSet(x, p, gp);
+            }
+            x = gp;
+        }
+    }
+}
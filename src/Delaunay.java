@@ -0,0 +1,422 @@
+import java.util.Arrays;
+
+/**
+ * Delaunay triangulation of a point set by sweeping a convex hull outward
+ * from a seed triangle, flipping edges until every triangle is Delaunay
+ * (the approach of the Delaunator library). Expected O(n log n) time and
+ * only primitive arrays.
+ *
+ * Triangle t has corners triangles[3t], triangles[3t+1], triangles[3t+2].
+ * Half edge h runs from triangles[h] to triangles[next(h)], and halfedges[h]
+ * is the opposite half edge in the neighbouring triangle, or -1 on the hull.
+ *
+ * Points that coincide with an earlier point are left out of the triangulation
+ * and listed in duplicates, next to the point they repeat in duplicateOf.
+ * Points that sit exactly on the current hull when they are swept can't be
+ * placed either and are listed in unplaced; that only happens on degenerate
+ * input such as integer grids. If every point is on one line there are no
+ * triangles and collinear is set.
+ */
+public class Delaunay {
+
+    private static final double EPSILON = Math.pow(2, -52);
+
+    public final double[] x, y;
+    public final int n;
+
+    public int[] triangles;
+    public int[] halfedges;
+    public int trianglesLen = 0;
+
+    public int[] duplicates = new int[0], duplicateOf = new int[0];
+    public int duplicateCount = 0;
+    public int[] unplaced = new int[0];
+    public int unplacedCount = 0;
+    public boolean collinear = false;
+
+    private final int[] hullPrev, hullNext, hullTri, hullHash;
+    private final int hashSize;
+    private int hullStart;
+    private int seed0, seed1, seed2;
+    private double cx, cy;
+    private int[] edgeStack = new int[512];
+
+    public Delaunay(double[] x, double[] y, int n) {
+        this.x = x;
+        this.y = y;
+        this.n = n;
+        int maxTriangles = Math.max(2 * n - 5, 0);
+        triangles = new int[maxTriangles * 3];
+        halfedges = new int[maxTriangles * 3];
+        hashSize = Math.max(1, (int) Math.ceil(Math.sqrt(n)));
+        hullPrev = new int[n];
+        hullNext = new int[n];
+        hullTri = new int[n];
+        hullHash = new int[hashSize];
+        triangulate();
+    }
+
+    public static int next(int h) {
+        return h % 3 == 2 ? h - 2 : h + 1;
+    }
+
+    private void triangulate() {
+        if (n < 3) {
+            collinear = true;
+            return;
+        }
+        int[] ids = new int[n];
+        double[] dists = new double[n];
+
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxX = Math.max(maxX, x[i]);
+            maxY = Math.max(maxY, y[i]);
+            ids[i] = i;
+        }
+        double midX = (minX + maxX) / 2, midY = (minY + maxY) / 2;
+
+        // seed triangle: point closest to the middle, its nearest neighbour,
+        // and the point that makes the smallest circumcircle with them
+        int i0 = 0, i1 = 0, i2 = 0;
+        double minDist = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            double d = dist(midX, midY, x[i], y[i]);
+            if (d < minDist) {
+                i0 = i;
+                minDist = d;
+            }
+        }
+        minDist = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            if (i == i0) continue;
+            double d = dist(x[i0], y[i0], x[i], y[i]);
+            if (d < minDist && d > 0) {
+                i1 = i;
+                minDist = d;
+            }
+        }
+        double minRadius = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            if (i == i0 || i == i1) continue;
+            double r = circumradius(x[i0], y[i0], x[i1], y[i1], x[i], y[i]);
+            if (r < minRadius) {
+                i2 = i;
+                minRadius = r;
+            }
+        }
+        if (minRadius == Double.POSITIVE_INFINITY) {
+            collinear = true;
+            return;
+        }
+
+        // counter-clockwise seed
+        if (orient(x[i0], y[i0], x[i1], y[i1], x[i2], y[i2])) {
+            int t = i1;
+            i1 = i2;
+            i2 = t;
+        }
+
+        circumcenter(x[i0], y[i0], x[i1], y[i1], x[i2], y[i2]);
+        for (int i = 0; i < n; i++) {
+            dists[i] = dist(x[i], y[i], cx, cy);
+        }
+        // sweep points outward from the seed circumcenter
+        seed0 = i0;
+        seed1 = i1;
+        seed2 = i2;
+        sortByDistance(ids, dists, 0, n - 1);
+
+        hullStart = i0;
+        hullNext[i0] = hullPrev[i2] = i1;
+        hullNext[i1] = hullPrev[i0] = i2;
+        hullNext[i2] = hullPrev[i1] = i0;
+        hullTri[i0] = 0;
+        hullTri[i1] = 1;
+        hullTri[i2] = 2;
+        Arrays.fill(hullHash, -1);
+        hullHash[hashKey(x[i0], y[i0])] = i0;
+        hullHash[hashKey(x[i1], y[i1])] = i1;
+        hullHash[hashKey(x[i2], y[i2])] = i2;
+
+        addTriangle(i0, i1, i2, -1, -1, -1);
+
+        double xp = 0, yp = 0;
+        int previous = -1;
+        for (int k = 0; k < n; k++) {
+            int i = ids[k];
+            double px = x[i], py = y[i];
+
+            // skip near-duplicate points
+            if (k > 0 && Math.abs(px - xp) <= EPSILON && Math.abs(py - yp) <= EPSILON) {
+                addDuplicate(i, previous);
+                continue;
+            }
+            xp = px;
+            yp = py;
+            previous = i;
+
+            if (i == i0 || i == i1 || i == i2) continue;
+
+            // find a visible edge on the convex hull using the edge hash
+            int start = 0;
+            for (int j = 0, key = hashKey(px, py); j < hashSize; j++) {
+                start = hullHash[(key + j) % hashSize];
+                if (start != -1 && start != hullNext[start]) break;
+            }
+            start = hullPrev[start];
+            int e = start, q;
+            while (!orient(px, py, x[e], y[e], x[q = hullNext[e]], y[q])) {
+                e = q;
+                if (e == start) {
+                    e = -1;
+                    break;
+                }
+            }
+            if (e == -1) {
+                // on the hull itself, or a near-duplicate of a hull point
+                addUnplaced(i);
+                continue;
+            }
+
+            // add the first triangle from the point
+            int t = addTriangle(e, i, hullNext[e], -1, -1, hullTri[e]);
+
+            // recursively flip triangles from the point until they satisfy the Delaunay condition
+            hullTri[i] = legalize(t + 2);
+            hullTri[e] = t;
+
+            // walk forward through the hull, adding more triangles and flipping
+            int nx = hullNext[e];
+            while (orient(px, py, x[nx], y[nx], x[q = hullNext[nx]], y[q])) {
+                t = addTriangle(nx, i, q, hullTri[i], -1, hullTri[nx]);
+                hullTri[i] = legalize(t + 2);
+                hullNext[nx] = nx; // mark as removed
+                nx = q;
+            }
+
+            // walk backward from the other side, adding more triangles and flipping
+            if (e == start) {
+                while (orient(px, py, x[q = hullPrev[e]], y[q], x[e], y[e])) {
+                    t = addTriangle(q, i, e, -1, hullTri[e], hullTri[q]);
+                    legalize(t + 2);
+                    hullTri[q] = t;
+                    hullNext[e] = e; // mark as removed
+                    e = q;
+                }
+            }
+
+            // update the hull indices
+            hullStart = hullPrev[i] = e;
+            hullNext[e] = hullPrev[nx] = i;
+            hullNext[i] = nx;
+
+            hullHash[hashKey(px, py)] = i;
+            hullHash[hashKey(x[e], y[e])] = e;
+        }
+    }
+
+    private void addDuplicate(int i, int of) {
+        if (duplicateCount == duplicates.length) {
+            duplicates = Arrays.copyOf(duplicates, Math.max(8, 2 * duplicateCount));
+            duplicateOf = Arrays.copyOf(duplicateOf, duplicates.length);
+        }
+        duplicates[duplicateCount] = i;
+        duplicateOf[duplicateCount++] = of;
+    }
+
+    private void addUnplaced(int i) {
+        if (unplacedCount == unplaced.length) {
+            unplaced = Arrays.copyOf(unplaced, Math.max(8, 2 * unplacedCount));
+        }
+        unplaced[unplacedCount++] = i;
+    }
+
+    private int legalize(int a) {
+        int i = 0;
+        int ar;
+
+        // recursion eliminated with an explicit stack
+        while (true) {
+            int b = halfedges[a];
+            int a0 = a - a % 3;
+            ar = a0 + (a + 2) % 3;
+
+            if (b == -1) { // convex hull edge
+                if (i == 0) break;
+                a = edgeStack[--i];
+                continue;
+            }
+
+            int b0 = b - b % 3;
+            int al = a0 + (a + 1) % 3;
+            int bl = b0 + (b + 2) % 3;
+
+            int p0 = triangles[ar];
+            int pr = triangles[a];
+            int pl = triangles[al];
+            int p1 = triangles[bl];
+
+            if (inCircle(x[p0], y[p0], x[pr], y[pr], x[pl], y[pl], x[p1], y[p1])) {
+                triangles[a] = p1;
+                triangles[b] = p0;
+
+                int hbl = halfedges[bl];
+
+                // edge swapped on the other side of the hull (rare), fix the halfedge reference
+                if (hbl == -1) {
+                    int e = hullStart;
+                    do {
+                        if (hullTri[e] == bl) {
+                            hullTri[e] = a;
+                            break;
+                        }
+                        e = hullPrev[e];
+                    } while (e != hullStart);
+                }
+                link(a, hbl);
+                link(b, halfedges[ar]);
+                link(ar, bl);
+
+                int br = b0 + (b + 1) % 3;
+                if (i == edgeStack.length) {
+                    edgeStack = Arrays.copyOf(edgeStack, 2 * i);
+                }
+                edgeStack[i++] = br;
+            } else {
+                if (i == 0) break;
+                a = edgeStack[--i];
+            }
+        }
+        return ar;
+    }
+
+    private void link(int a, int b) {
+        halfedges[a] = b;
+        if (b != -1) halfedges[b] = a;
+    }
+
+    private int addTriangle(int i0, int i1, int i2, int a, int b, int c) {
+        int t = trianglesLen;
+        triangles[t] = i0;
+        triangles[t + 1] = i1;
+        triangles[t + 2] = i2;
+        link(t, a);
+        link(t + 1, b);
+        link(t + 2, c);
+        trianglesLen += 3;
+        return t;
+    }
+
+    private int hashKey(double px, double py) {
+        return (int) (Math.floor(pseudoAngle(px - cx, py - cy) * hashSize) % hashSize);
+    }
+
+    // monotonically increases with the real angle, but doesn't need trigonometry
+    private static double pseudoAngle(double dx, double dy) {
+        double p = dx / (Math.abs(dx) + Math.abs(dy));
+        return (dy > 0 ? 3 - p : 1 + p) / 4; // [0..1]
+    }
+
+    private static double dist(double ax, double ay, double bx, double by) {
+        double dx = ax - bx, dy = ay - by;
+        return dx * dx + dy * dy;
+    }
+
+    private static boolean orient(double px, double py, double qx, double qy, double rx, double ry) {
+        return (qy - py) * (rx - qx) - (qx - px) * (ry - qy) < 0;
+    }
+
+    private static boolean inCircle(double ax, double ay, double bx, double by,
+                                    double cx, double cy, double px, double py) {
+        double dx = ax - px, dy = ay - py;
+        double ex = bx - px, ey = by - py;
+        double fx = cx - px, fy = cy - py;
+        double ap = dx * dx + dy * dy;
+        double bp = ex * ex + ey * ey;
+        double cp = fx * fx + fy * fy;
+        return dx * (ey * cp - bp * fy) - dy * (ex * cp - bp * fx) + ap * (ex * fy - ey * fx) < 0;
+    }
+
+    private static double circumradius(double ax, double ay, double bx, double by, double cx, double cy) {
+        double dx = bx - ax, dy = by - ay;
+        double ex = cx - ax, ey = cy - ay;
+        double bl = dx * dx + dy * dy;
+        double cl = ex * ex + ey * ey;
+        double d = 0.5 / (dx * ey - dy * ex);
+        double rx = (ey * bl - dy * cl) * d;
+        double ry = (dx * cl - ex * bl) * d;
+        return rx * rx + ry * ry;
+    }
+
+    private void circumcenter(double ax, double ay, double bx, double by, double cx, double cy) {
+        double dx = bx - ax, dy = by - ay;
+        double ex = cx - ax, ey = cy - ay;
+        double bl = dx * dx + dy * dy;
+        double cl = ex * ex + ey * ey;
+        double d = 0.5 / (dx * ey - dy * ex);
+        this.cx = ax + (ey * bl - dy * cl) * d;
+        this.cy = ay + (dx * cl - ex * bl) * d;
+    }
+
+    // quicksort of ids by dists, recursing into the smaller half
+    private void sortByDistance(int[] ids, double[] dists, int left, int right) {
+        while (right - left > 20) {
+            int median = (left + right) >>> 1;
+            int i = left + 1, j = right;
+            swap(ids, median, i);
+            if (before(ids[right], ids[left], dists)) swap(ids, left, right);
+            if (before(ids[right], ids[i], dists)) swap(ids, i, right);
+            if (before(ids[i], ids[left], dists)) swap(ids, left, i);
+
+            int temp = ids[i];
+            while (true) {
+                do i++; while (before(ids[i], temp, dists));
+                do j--; while (before(temp, ids[j], dists));
+                if (j < i) break;
+                swap(ids, i, j);
+            }
+            ids[left + 1] = ids[j];
+            ids[j] = temp;
+
+            if (right - i + 1 >= j - left) {
+                sortByDistance(ids, dists, left, j - 1);
+                left = i;
+            } else {
+                sortByDistance(ids, dists, i, right);
+                right = j - 1;
+            }
+        }
+        for (int i = left + 1; i <= right; i++) {
+            int temp = ids[i];
+            int j = i - 1;
+            while (j >= left && before(temp, ids[j], dists)) {
+                ids[j + 1] = ids[j];
+                j--;
+            }
+            ids[j + 1] = temp;
+        }
+    }
+
+    // by distance, with repeats of a point next to each other and a seed point
+    // ahead of its repeats, so the sweep always spots them as duplicates
+    private boolean before(int a, int b, double[] dists) {
+        if (dists[a] != dists[b]) return dists[a] < dists[b];
+        if (x[a] != x[b]) return x[a] < x[b];
+        if (y[a] != y[b]) return y[a] < y[b];
+        return isSeed(a) && !isSeed(b);
+    }
+
+    private boolean isSeed(int i) {
+        return i == seed0 || i == seed1 || i == seed2;
+    }
+
+    private static void swap(int[] arr, int i, int j) {
+        int tmp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = tmp;
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Headless depth first search from start until target is reached.
+ * Each step looks at the vertex on top of the stack and pushes its next
+ * unvisited neighbour, or pops it when there is none. Every vertex keeps a
+ * cursor into its adjacency, so a neighbour list is never rescanned from the
+ * start and the whole search looks at each edge end once, O(V + E).
+ */
+public class DfsEngine {
+
+    public final GraphData graph;
+
+    public DfsEngine(GraphData graph) {
+        this.graph = graph;
+    }
+
+    public SearchResult run(int start, int target) {
+        return run(start, target, StepListener.NONE);
+    }
+
+    /**
+     * @param target - vertex to stop at, or -1 to search the whole component
+     */
+    public SearchResult run(int start, int target, StepListener listener) {
+        GraphData g = graph;
+        AlgorithmMetrics metrics = new AlgorithmMetrics("dfs", g);
+        metrics.phase("adjacency");
+        AdjacencyIndex adj = g.adjacency();
+        metrics.phase("search");
+        SearchResult result = new SearchResult(g, start, target);
+        boolean[] visited = new boolean[g.vertexCount];
+
+        // a vertex is only pushed while unvisited and is visited right after, so V slots suffice
+        int[] S = new int[g.vertexCount];
+        int[] cursor = new int[g.vertexCount]; // next adjacency slot to look at
+        int top = 0;
+        S[top++] = start;
+        long examined = 0;
+
+        while (top > 0) {
+            int u = S[top - 1]; // peek
+            if (!visited[u]) {
+                visited[u] = true;
+                cursor[u] = adj.begin(u);
+                result.expanded++;
+            }
+            listener.vertexExpanded(u);
+
+            // FOUND DESIRED NODE
+            if (u == target) {
+                result.found = true;
+                listener.targetFound(u, result.parentEdge[u]);
+                return finish(result, metrics, examined);
+            }
+
+            // find an adjacent vertex to u and add to stack
+            boolean backtrack = true;
+            for (int end = adj.end(u); cursor[u] < end; ) {
+                int i = cursor[u]++;
+                examined++;
+                int v = adj.target[i];
+                if (!visited[v]) {
+                    result.parentEdge[v] = adj.edge[i];
+                    S[top++] = v;
+                    listener.vertexReached(v, adj.edge[i]);
+                    backtrack = false;
+                    break;
+                }
+            }
+            if (backtrack) {
+                listener.vertexFinished(u);
+                top--;
+            }
+        }
+        return finish(result, metrics, examined);
+    }
+
+    private static SearchResult finish(SearchResult result, AlgorithmMetrics metrics, long examined) {
+        metrics.edgesExamined = examined;
+        metrics.verticesExpanded = result.expanded;
+        result.metrics = metrics.finish();
+        return result;
+    }
+}
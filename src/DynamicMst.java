@@ -0,0 +1,466 @@
+import java.util.Arrays;
+
+/**
+ * Minimum spanning forest kept up to date while edges are inserted,
+ * deleted and reweighted, so it never has to be recomputed from scratch.
+ *
+ * Tree edges live in a LinkCutTree as nodes between their vertex nodes, which
+ * answers the heaviest tree edge on a path. Replacements for a cut tree edge
+ * are found with the level scheme of Holm, de Lichtenberg and Thorup:
+ *  - every edge has a level, and F_i is the forest of tree edges of level i
+ *    or more, kept as an EulerTourForest. A tree of F_i never has more than
+ *    V / 2^i vertices, so there are at most log V levels, and both ends of a
+ *    non tree edge of level i are connected in F_i.
+ *  - insert, lowering a weight, and deleting a non tree edge are O(log V):
+ *    by the cycle property the edge only has to beat the heaviest tree edge
+ *    on the path it closes. If it does, that edge leaves the tree as below.
+ *  - deleting or raising a tree edge of level l cuts it from F_0 .. F_l. Going
+ *    down from l, the smaller half of each level gets its tree edges of that
+ *    level moved up one, and then its non tree edges of that level are tried
+ *    lightest first. One that crosses the cut is a candidate, one that doesn't
+ *    is moved up a level too. The lightest candidate reconnects the halves at
+ *    its own level j, and whatever still crosses the cut above j drops to j.
+ * Moves up are paid for by the level they add, at most log V per edge between
+ * drops, so with the O(log V) Euler tour work each update is O(log^2 V)
+ * amortized plus O(log V) per dropped edge. An edge only drops when a lighter
+ * one sits below it across the cut, which with deletions alone never happens
+ * (Holm et al.'s bound); it takes an insert or reweight since the edge last
+ * moved up.
+ * replacementScans counts the non tree edges tried.
+ *
+ * Edge ids are chosen by the caller and match GraphData's.
+ */
+public class DynamicMst {
+
+    public final LinkCutTree tree = new LinkCutTree(16);
+
+    public int vertexCount = 0;
+    private int[] vertexNode = new int[16];
+
+    // per edge id
+    private int[] edgeU = new int[16], edgeV = new int[16];
+    private double[] weight = new double[16];
+    private int[] edgeNode = new int[16]; // link-cut node of a tree edge, -1 otherwise
+    private int[] level = new int[16];    // -1 for a loop, which is never in the tree
+    private int[] slot = new int[32];     // position of the edge in the lists of edgeU at 2e and edgeV at 2e + 1
+    private boolean[] present = new boolean[16];
+
+    private int[] nodeEdge = new int[16]; // edge id of an edge node in the link-cut tree
+
+    private Level[] levels = new Level[0];
+
+    public int treeEdgeCount = 0;
+    public double treeWeight = 0;
+    public long replacementScans = 0;
+
+    /**
+     * F_i, and the edges of level exactly i by endpoint: tree edges in plain
+     * lists, non tree edges in binary heaps lightest first. Each vertex tells
+     * the forest whether it has tree edges here and which non tree edge is its
+     * lightest, so a tree of F_i can be asked for either in O(log V).
+     */
+    private class Level {
+        final EulerTourForest forest = new EulerTourForest(2 * vertexNode.length);
+        int[][] treeEdges = new int[16][];
+        int[] treeCount = new int[16];
+        int[][] heap = new int[16][];
+        int[] heapCount = new int[16];
+
+        Level() {
+            for (int v = 0; v < vertexCount; v++) {
+                addVertex(v);
+            }
+        }
+
+        void addVertex(int v) {
+            forest.addVertex(v);
+            if (v == treeCount.length) {
+                treeEdges = Arrays.copyOf(treeEdges, 2 * v);
+                treeCount = Arrays.copyOf(treeCount, 2 * v);
+                heap = Arrays.copyOf(heap, 2 * v);
+                heapCount = Arrays.copyOf(heapCount, 2 * v);
+            }
+        }
+
+        void addTree(int v, int e) {
+            int n = treeCount[v];
+            treeEdges[v] = room(treeEdges[v], n);
+            treeEdges[v][n] = e;
+            slot[end(e, v)] = n;
+            treeCount[v] = n + 1;
+            refresh(v);
+        }
+
+        void removeTree(int v, int e) {
+            int i = slot[end(e, v)];
+            int last = treeEdges[v][--treeCount[v]];
+            treeEdges[v][i] = last;
+            slot[end(last, v)] = i;
+            refresh(v);
+        }
+
+        void addNonTree(int v, int e) {
+            int n = heapCount[v]++;
+            heap[v] = room(heap[v], n);
+            heap[v][n] = e;
+            siftUp(v, n);
+            refresh(v);
+        }
+
+        void removeNonTree(int v, int e) {
+            int i = slot[end(e, v)];
+            int last = heap[v][--heapCount[v]];
+            if (i < heapCount[v]) {
+                heap[v][i] = last;
+                slot[end(last, v)] = i;
+                siftUp(v, i);
+                siftDown(v, slot[end(last, v)]);
+            }
+            refresh(v);
+        }
+
+        void refresh(int v) {
+            int top = heapCount[v] > 0 ? heap[v][0] : -1;
+            forest.setVertex(v, treeCount[v] > 0, top == -1 ? 0 : weight[top], top);
+        }
+
+        private void siftUp(int v, int i) {
+            int[] h = heap[v];
+            int e = h[i];
+            while (i > 0) {
+                int p = (i - 1) >>> 1;
+                if (!lighter(e, h[p])) {
+                    break;
+                }
+                h[i] = h[p];
+                slot[end(h[i], v)] = i;
+                i = p;
+            }
+            h[i] = e;
+            slot[end(e, v)] = i;
+        }
+
+        private void siftDown(int v, int i) {
+            int[] h = heap[v];
+            int n = heapCount[v];
+            int e = h[i];
+            while (2 * i + 1 < n) {
+                int c = 2 * i + 1;
+                if (c + 1 < n && lighter(h[c + 1], h[c])) {
+                    c++;
+                }
+                if (!lighter(h[c], e)) {
+                    break;
+                }
+                h[i] = h[c];
+                slot[end(h[i], v)] = i;
+                i = c;
+            }
+            h[i] = e;
+            slot[end(e, v)] = i;
+        }
+    }
+
+    /**
+     * @return - id of the new vertex
+     */
+    public int addVertex() {
+        if (vertexCount == vertexNode.length) {
+            vertexNode = Arrays.copyOf(vertexNode, 2 * vertexCount);
+        }
+        vertexNode[vertexCount] = newNode(Double.NEGATIVE_INFINITY, -1);
+        for (Level at : levels) {
+            at.addVertex(vertexCount);
+        }
+        return vertexCount++;
+    }
+
+    public void insert(int e, int u, int v, double w) {
+        ensureEdgeCapacity(e);
+        edgeU[e] = u;
+        edgeV[e] = v;
+        weight[e] = w;
+        edgeNode[e] = -1;
+        present[e] = true;
+        place(e);
+    }
+
+    public void delete(int e) {
+        if (edgeNode[e] != -1) {
+            replace(e);
+        } else if (level[e] != -1) {
+            removeNonTree(e);
+        }
+        present[e] = false;
+    }
+
+    public void reweight(int e, double w) {
+        if (edgeNode[e] == -1) {
+            // a non tree edge that got lighter may now beat a tree edge
+            if (level[e] != -1) {
+                removeNonTree(e);
+            }
+            weight[e] = w;
+            place(e);
+        } else if (w <= weight[e]) {
+            // a tree edge that got lighter stays in the tree
+            treeWeight += w - weight[e];
+            weight[e] = w;
+            tree.setValue(edgeNode[e], w);
+        } else {
+            // a tree edge that got heavier competes with the non tree edges across its cut
+            replace(e);
+            weight[e] = w;
+            place(e);
+        }
+    }
+
+    /**
+     * Gives edge from the id to. Used when GraphData moves its last edge into a removed slot.
+     */
+    public void moveEdge(int from, int to) {
+        ensureEdgeCapacity(to);
+        edgeU[to] = edgeU[from];
+        edgeV[to] = edgeV[from];
+        weight[to] = weight[from];
+        edgeNode[to] = edgeNode[from];
+        level[to] = level[from];
+        slot[2 * to] = slot[2 * from];
+        slot[2 * to + 1] = slot[2 * from + 1];
+        present[to] = true;
+        present[from] = false;
+        edgeNode[from] = -1;
+        level[from] = -1;
+
+        int l = level[to];
+        if (l == -1) {
+            return;
+        }
+        Level at = levels[l];
+        int u = edgeU[to], v = edgeV[to];
+        if (edgeNode[to] != -1) {
+            nodeEdge[edgeNode[to]] = to;
+            for (int i = 0; i <= l; i++) {
+                levels[i].forest.moveEdge(from, to);
+            }
+            at.treeEdges[u][slot[2 * to]] = to;
+            at.treeEdges[v][slot[2 * to + 1]] = to;
+        } else {
+            // ties are broken by id, so the new id may sit elsewhere in the heaps
+            at.heap[u][slot[2 * to]] = to;
+            at.heap[v][slot[2 * to + 1]] = to;
+            at.siftUp(u, slot[2 * to]);
+            at.siftDown(u, slot[2 * to]);
+            at.siftUp(v, slot[2 * to + 1]);
+            at.siftDown(v, slot[2 * to + 1]);
+        }
+        at.refresh(u);
+        at.refresh(v);
+    }
+
+    public boolean isTreeEdge(int e) {
+        return present[e] && edgeNode[e] != -1;
+    }
+
+    /**
+     * @return - ids of the current tree edges
+     */
+    public int[] treeEdges() {
+        int[] ids = new int[treeEdgeCount];
+        int count = 0;
+        for (int e = 0; e < present.length && count < ids.length; e++) {
+            if (present[e] && edgeNode[e] != -1) {
+                ids[count++] = e;
+            }
+        }
+        return ids;
+    }
+
+    public boolean connected(int u, int v) {
+        return tree.connected(vertexNode[u], vertexNode[v]);
+    }
+
+    // puts an edge that is not in the tree either into the tree or among the non tree edges
+    private void place(int e) {
+        if (edgeU[e] == edgeV[e]) {
+            level[e] = -1;
+            return;
+        }
+        int heaviest = tree.pathMaxIfConnected(vertexNode[edgeU[e]], vertexNode[edgeV[e]]);
+        if (heaviest == -1) {
+            addTree(e, 0);
+        } else if (tree.value[heaviest] > weight[e]) {
+            // everything else across the heaviest edge's cut weighs at least as much
+            // as it does, so e is the replacement the search picks
+            int old = nodeEdge[heaviest];
+            addNonTree(e, 0);
+            replace(old);
+            addNonTree(old, 0);
+        } else {
+            addNonTree(e, 0);
+        }
+    }
+
+    // takes tree edge e out of the tree and links the lightest non tree edge across the cut, if any
+    private void replace(int e) {
+        int l = level[e], a = edgeU[e], b = edgeV[e];
+        unlink(e);
+        levels[l].removeTree(a, e);
+        levels[l].removeTree(b, e);
+        for (int i = 0; i <= l; i++) {
+            levels[i].forest.cut(e);
+        }
+
+        int best = -1;
+        for (int i = l; i >= 0; i--) {
+            Level at = levels[i];
+            int small = at.forest.size(a) <= at.forest.size(b) ? a : b;
+            int c = at.forest.minEdge(small);
+            if (c == -1 || best != -1 && !lighter(c, best)) {
+                continue;
+            }
+            raiseTrees(at, small, i);
+            while (c != -1 && (best == -1 || lighter(c, best))) {
+                replacementScans++;
+                if (!at.forest.connected(edgeU[c], edgeV[c])) {
+                    best = c;
+                    break;
+                }
+                // both ends are in small
+                removeNonTree(c);
+                addNonTree(c, i + 1);
+                c = at.forest.minEdge(small);
+            }
+        }
+        if (best == -1) {
+            return;
+        }
+        int j = level[best];
+        removeNonTree(best);
+        addTree(best, j);
+        // what still crosses the cut above j is only connected through best now, so it comes down to j
+        for (int i = j + 1; i <= l; i++) {
+            Level at = levels[i];
+            int small = at.forest.size(a) <= at.forest.size(b) ? a : b;
+            raiseTrees(at, small, i);
+            for (int c = at.forest.minEdge(small); c != -1; c = at.forest.minEdge(small)) {
+                replacementScans++;
+                removeNonTree(c);
+                addNonTree(c, at.forest.connected(edgeU[c], edgeV[c]) ? i + 1 : j);
+            }
+        }
+    }
+
+    // small has at most half the vertices its tree had, so its tree edges of level i fit a level up
+    private void raiseTrees(Level at, int small, int i) {
+        for (int x = at.forest.findFlagged(small); x != -1; x = at.forest.findFlagged(small)) {
+            while (at.treeCount[x] > 0) {
+                raiseTree(at.treeEdges[x][0], i);
+            }
+        }
+    }
+
+    private void raiseTree(int e, int from) {
+        int u = edgeU[e], v = edgeV[e];
+        levels[from].removeTree(u, e);
+        levels[from].removeTree(v, e);
+        Level up = level(from + 1);
+        level[e] = from + 1;
+        up.forest.link(u, v, e);
+        up.addTree(u, e);
+        up.addTree(v, e);
+    }
+
+    private void addTree(int e, int l) {
+        int u = edgeU[e], v = edgeV[e];
+        level(l);
+        level[e] = l;
+        for (int i = 0; i <= l; i++) {
+            levels[i].forest.link(u, v, e);
+        }
+        levels[l].addTree(u, e);
+        levels[l].addTree(v, e);
+        link(e);
+    }
+
+    private void addNonTree(int e, int l) {
+        Level at = level(l);
+        level[e] = l;
+        at.addNonTree(edgeU[e], e);
+        at.addNonTree(edgeV[e], e);
+    }
+
+    private void removeNonTree(int e) {
+        Level at = levels[level[e]];
+        at.removeNonTree(edgeU[e], e);
+        at.removeNonTree(edgeV[e], e);
+    }
+
+    // level l, made on first use
+    private Level level(int l) {
+        while (levels.length <= l) {
+            levels = Arrays.copyOf(levels, levels.length + 1);
+            levels[levels.length - 1] = new Level();
+        }
+        return levels[l];
+    }
+
+    // lighter weight first, ties broken by id like EdgeSort
+    private boolean lighter(int a, int b) {
+        return weight[a] != weight[b] ? weight[a] < weight[b] : a < b;
+    }
+
+    // index into slot of e's end at v
+    private int end(int e, int v) {
+        return edgeU[e] == v ? 2 * e : 2 * e + 1;
+    }
+
+    private static int[] room(int[] list, int n) {
+        if (list == null) {
+            return new int[4];
+        }
+        return n < list.length ? list : Arrays.copyOf(list, 2 * n);
+    }
+
+    private void link(int e) {
+        int node = newNode(weight[e], e);
+        edgeNode[e] = node;
+        tree.link(vertexNode[edgeU[e]], node);
+        tree.link(node, vertexNode[edgeV[e]]);
+        treeEdgeCount++;
+        treeWeight += weight[e];
+    }
+
+    private void unlink(int e) {
+        int node = edgeNode[e];
+        tree.cut(vertexNode[edgeU[e]], node);
+        tree.cut(node, vertexNode[edgeV[e]]);
+        tree.free(node);
+        edgeNode[e] = -1;
+        treeEdgeCount--;
+        treeWeight -= weight[e];
+    }
+
+    private int newNode(double val, int e) {
+        int node = tree.newNode(val);
+        if (node >= nodeEdge.length) {
+            nodeEdge = Arrays.copyOf(nodeEdge, Math.max(node + 1, 2 * nodeEdge.length));
+        }
+        nodeEdge[node] = e;
+        return node;
+    }
+
+    private void ensureEdgeCapacity(int e) {
+        if (e < present.length) {
+            return;
+        }
+        int size = Math.max(e + 1, 2 * present.length);
+        edgeU = Arrays.copyOf(edgeU, size);
+        edgeV = Arrays.copyOf(edgeV, size);
+        weight = Arrays.copyOf(weight, size);
+        edgeNode = Arrays.copyOf(edgeNode, size);
+        level = Arrays.copyOf(level, size);
+        slot = Arrays.copyOf(slot, 2 * size);
+        present = Arrays.copyOf(present, size);
+    }
+}
@@ -1,56 +1,64 @@
 import java.awt.*;
 
+/**
+ * An edge of a Graph. Everything about it lives in graph.data at index id,
+ * this is only a handle to it. Create edges with Graph.addEdge.
+ */
 public class Edge implements Comparable<Edge> {
 
-    public Node n1, n2;
-    public double length, slope, weight;
-    public String name;
-    public Color color;
+    public Graph graph;
+    public int id; // index in Graph.edges and graph.data, -1 once removed
 
-    public Edge (Node n1, Node n2) {
-        this.n1 = n1;
-        this.n2 = n2;
-        this.weight = lengthSquared();
-        this.name = n1.name + n2.name;
-        color = Graph.DEFAULT_C;
+    Edge(Graph graph, int id) {
+        this.graph = graph;
+        this.id = id;
 
-        System.out.println("Edge name = " + n1.name + " " + n2.name);
+        if (Trace.DEBUG) {
+            Trace.log("Edge name = " + n1().getName() + " " + n2().getName());
+        }
     }
 
-    public String getName() {
-        return name;
+    public Node n1() {
+        return graph.nodes.get(graph.data.edgeU[id]);
     }
 
-    public void setColor(Color c) {
-        this.color = c;
+    public Node n2() {
+        return graph.nodes.get(graph.data.edgeV[id]);
+    }
+
+    public double weight() {
+        return graph.data.weight[id];
     }
 
-    public double slope() {
-        double slope = (n1.getX() - n2.getX()) / (n1.getX() - n2.getX());
-        return (n1.getX() - n2.getX() == 0 ? Math.abs(slope) : slope);
+    public String getName() {
+        return n1().getName() + n2().getName();
+    }
+
+    public void setColor(Color c) {
+        graph.data.edgeColor[id] = Graph.colorIndex(c);
+        graph.renderer.markEdge(id);
     }
 
-    public Point midpoint() {
-        return new Point((int)(n1.getX() + n2.getX())/2, (int)(n1.getX() + n2.getX())/2);
+    public Color getColor() {
+        return Graph.PALETTE[graph.data.edgeColor[id]];
     }
 
     public double lengthSquared() {
-        return Math.pow(n1.getX() - n2.getX(), 2)
-                + Math.pow(n1.getY() - n2.getY(), 2);
+        return graph.data.lengthSquared(graph.data.edgeU[id], graph.data.edgeV[id]);
     }
 
     /**
-     * If > 1, then this edge has higher weight than the other
-     * If < 1, then this edge has less weight
+     * If > 0, then this edge has higher weight than the other
+     * If < 0, then this edge has less weight
      * If == 0, then same weight
     */
     @Override
     public int compareTo(Edge e) {
-        return (int)(weight - e.weight);
+        return Double.compare(weight(), e.weight());
     }
 
     @Override
     public String toString() {
-        return (this.name);
+        return getName();
     }
 }
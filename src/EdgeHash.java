@@ -0,0 +1,169 @@
+import java.util.Arrays;
+
+/**
+ * Edge ids keyed by their unordered vertex pair, without boxing.
+ *
+ * The pair (u, v) is packed into one long as (min << 32) | max, so u-v and
+ * v-u are the same key and no two pairs can collide the way concatenated
+ * names can. Keys live in an open addressing table with linear probing;
+ * removal shifts the rest of the probe run back instead of leaving
+ * tombstones, so lookups never slow down however many edges come and go.
+ * With parallel edges only one of them is kept per pair.
+ */
+public class EdgeHash {
+
+    private static final long EMPTY = -1L; // no valid key has the sign bit set
+    private static final int MIN_CAPACITY = 16;
+
+    public long[] keys;
+    public int[] values;
+    public int size = 0;
+    private int mask;
+
+    public EdgeHash() {
+        this(0);
+    }
+
+    /**
+     * @param expected - number of pairs to make room for up front
+     */
+    public EdgeHash(int expected) {
+        allocate(capacityFor(expected));
+    }
+
+    /**
+     * @return - key shared by u-v and v-u
+     */
+    public static long key(int u, int v) {
+        return u < v ? ((long) u << 32) | v : ((long) v << 32) | u;
+    }
+
+    /**
+     * @return - edge id stored for u-v, or -1 if there is none
+     */
+    public int get(int u, int v) {
+        long k = key(u, v);
+        for (int i = slot(k); ; i = (i + 1) & mask) {
+            if (keys[i] == k) {
+                return values[i];
+            }
+            if (keys[i] == EMPTY) {
+                return -1;
+            }
+        }
+    }
+
+    public boolean contains(int u, int v) {
+        return get(u, v) != -1;
+    }
+
+    /**
+     * Stores id for u-v, replacing whatever was there.
+     */
+    public void put(int u, int v, int id) {
+        long k = key(u, v);
+        int i = find(k);
+        if (keys[i] == k) {
+            values[i] = id;
+            return;
+        }
+        insert(i, k, id);
+    }
+
+    /**
+     * Stores id for u-v unless the pair already has an edge.
+     *
+     * @return - true if id was stored, false if u-v was already there
+     */
+    public boolean add(int u, int v, int id) {
+        long k = key(u, v);
+        int i = find(k);
+        if (keys[i] == k) {
+            return false;
+        }
+        insert(i, k, id);
+        return true;
+    }
+
+    /**
+     * @return - edge id that was stored for u-v, or -1 if there was none
+     */
+    public int remove(int u, int v) {
+        long k = key(u, v);
+        int i = find(k);
+        if (keys[i] != k) {
+            return -1;
+        }
+        int id = values[i];
+        size--;
+        // backward shift: pull later entries of the run into the hole if the hole is on their probe path
+        int hole = i;
+        for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+            int home = slot(keys[j]);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        keys[hole] = EMPTY;
+        return id;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    // slot holding k, or the empty slot where it would go
+    private int find(long k) {
+        int i = slot(k);
+        while (keys[i] != k && keys[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void insert(int i, long k, int id) {
+        keys[i] = k;
+        values[i] = id;
+        // keep the table at most half full so probe runs stay short
+        if (++size > keys.length >>> 1) {
+            grow();
+        }
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(keys.length << 1);
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != EMPTY) {
+                int i = find(oldKeys[j]);
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+
+    private static int capacityFor(int expected) {
+        int capacity = MIN_CAPACITY;
+        while (capacity >>> 1 < expected) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    // multiplicative hash, the high bits mix in both endpoints
+    private int slot(long k) {
+        long h = k * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,147 @@
+/**
+ * Sorts arrays of edge ids by weight without boxing.
+ * Ties are broken by edge id so every run sorts the same way.
+ */
+public class EdgeSort {
+
+    private static final int INSERTION_SORT_SIZE = 24;
+
+    /**
+     * @return - edge ids 0 .. edgeCount-1 sorted by weight
+     */
+    public static int[] sortedByWeight(GraphData g) {
+        int[] ids = new int[g.edgeCount];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i;
+        }
+        sort(ids, 0, ids.length, g.weight);
+        return ids;
+    }
+
+    public static boolean less(int a, int b, double[] w) {
+        return w[a] < w[b] || (w[a] == w[b] && a < b);
+    }
+
+    /**
+     * Sorts ids[from .. to-1] by w[id].
+     */
+    public static void sort(int[] ids, int from, int to, double[] w) {
+        // quicksort, recursing into the smaller half so the stack stays O(log n)
+        while (to - from > INSERTION_SORT_SIZE) {
+            int mid = (from + to) >>> 1;
+            int pivot = medianOfThree(ids[from], ids[mid], ids[to - 1], w);
+            int i = from, j = to - 1;
+            while (i <= j) {
+                while (less(ids[i], pivot, w)) i++;
+                while (less(pivot, ids[j], w)) j--;
+                if (i <= j) {
+                    int t = ids[i];
+                    ids[i++] = ids[j];
+                    ids[j--] = t;
+                }
+            }
+            if (j - from < to - i) {
+                sort(ids, from, j + 1, w);
+                from = i;
+            } else {
+                sort(ids, i, to, w);
+                to = j + 1;
+            }
+        }
+        insertionSort(ids, from, to, w);
+    }
+
+    private static int medianOfThree(int a, int b, int c, double[] w) {
+        if (less(a, b, w)) {
+            return less(b, c, w) ? b : (less(a, c, w) ? c : a);
+        }
+        return less(a, c, w) ? a : (less(b, c, w) ? c : b);
+    }
+
+    private static void insertionSort(int[] ids, int from, int to, double[] w) {
+        for (int i = from + 1; i < to; i++) {
+            int id = ids[i];
+            int j = i - 1;
+            while (j >= from && less(id, ids[j], w)) {
+                ids[j + 1] = ids[j];
+                j--;
+            }
+            ids[j + 1] = id;
+        }
+    }
+
+    /**
+     * Hands out ids[from .. to-1] in weight order one at a time, partitioning
+     * only as far as the ids taken so far need (incremental quicksort).
+     * Taking the first k of m ids costs O(m + k log k) instead of a full sort,
+     * which is what an MST that stops early wants.
+     */
+    public static class Incremental {
+
+        private final int[] ids;
+        private final double[] w;
+        private final int to;
+        private int next;
+        // ends of the unsorted segments; every entry but the last is a pivot already in its final slot
+        private int[] bounds = new int[32];
+        private int top = 0;
+
+        public Incremental(int[] ids, int from, int to, double[] w) {
+            this.ids = ids;
+            this.w = w;
+            this.to = to;
+            this.next = from;
+            bounds[top++] = to;
+        }
+
+        public boolean hasNext() {
+            return next < to;
+        }
+
+        /**
+         * @return - the lightest id not handed out yet
+         */
+        public int next() {
+            while (bounds[top - 1] != next) {
+                int hi = bounds[top - 1];
+                if (hi - next <= INSERTION_SORT_SIZE) {
+                    insertionSort(ids, next, hi, w);
+                    for (int p = hi - 1; p >= next; p--) {
+                        push(p);
+                    }
+                } else {
+                    push(partition(next, hi));
+                }
+            }
+            top--;
+            return ids[next++];
+        }
+
+        private void push(int bound) {
+            if (top == bounds.length) {
+                bounds = java.util.Arrays.copyOf(bounds, 2 * top);
+            }
+            bounds[top++] = bound;
+        }
+
+        // puts a median of three pivot into its final slot in [lo, hi) and returns that slot
+        private int partition(int lo, int hi) {
+            int mid = (lo + hi) >>> 1;
+            int pivot = medianOfThree(ids[lo], ids[mid], ids[hi - 1], w);
+            int at = ids[lo] == pivot ? lo : (ids[mid] == pivot ? mid : hi - 1);
+            ids[at] = ids[hi - 1];
+            ids[hi - 1] = pivot;
+            int store = lo;
+            for (int i = lo; i < hi - 1; i++) {
+                if (less(ids[i], pivot, w)) {
+                    int t = ids[i];
+                    ids[i] = ids[store];
+                    ids[store++] = t;
+                }
+            }
+            ids[hi - 1] = ids[store];
+            ids[store] = pivot;
+            return store;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * Pull based stream of weighted edges that allocates nothing per edge.
+ *
+ *     while (stream.next())
+ *         use stream.u(), stream.v(), stream.weight()
+ */
+public interface EdgeStream {
+
+    /**
+     * Moves to the next edge.
+     *
+     * @return - false once the stream is exhausted
+     */
+    boolean next() throws java.io.IOException;
+
+    int u();
+
+    int v();
+
+    double weight();
+
+    /**
+     * @return - stream over the edges of g in id order
+     */
+    static EdgeStream of(GraphData g) {
+        return new EdgeStream() {
+            int e = -1;
+
+            public boolean next() {
+                return ++e < g.edgeCount;
+            }
+
+            public int u() {
+                return g.edgeU[e];
+            }
+
+            public int v() {
+                return g.edgeV[e];
+            }
+
+            public double weight() {
+                return g.weight[e];
+            }
+        };
+    }
+}
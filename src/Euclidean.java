@@ -0,0 +1,57 @@
+import java.util.ArrayList;
+
+/**
+ * Animates EuclideanMst: the MST of the complete graph on the nodes,
+ * whether or not the user drew those edges. Tree edges that are missing
+ * from the graph are added to it as they are accepted.
+ */
+public class Euclidean extends AnimationWorker {
+
+    public EuclideanMst engine;
+
+    public ArrayList<Edge> MST;
+
+    Euclidean(Graph graph) {
+        super(graph);
+        MST = new ArrayList<>();
+    }
+
+    /**
+     * Called when this class is executed
+     *
+     * @return - Minimum Spanning tree of the complete graph
+     */
+    @Override
+    protected Boolean animate(StepListener steps) throws Exception {
+        engine = new EuclideanMst(graph.data);
+        MstResult result = engine.run();
+        // replay only the tree, its edges are added to the graph as they are shown
+        for (int i = 0; i < result.edgeCount; i++) {
+            steps.edgeAccepted(result.edges[i]);
+        }
+        return true;
+    }
+
+    // edge is a candidate id, runs on the EDT so the graph can grow here
+    @Override
+    public void edgeAccepted(int edge) {
+        GraphData candidates = engine.candidates;
+        Node n1 = node(candidates.edgeU[edge]);
+        Node n2 = node(candidates.edgeV[edge]);
+        Edge e = graph.findEdge(n1, n2);
+        if (e == null) {
+            e = graph.addEdge(n1, n2);
+        }
+
+        // highlights edge as part of MST
+        MST.add(e);
+        e.setColor(Graph.FINAL_C);
+        n1.setColor(Graph.FINAL_C);
+        n2.setColor(Graph.FINAL_C);
+    }
+
+    public ArrayList<Edge> getMST() {
+        return this.MST;
+    }
+
+}
@@ -0,0 +1,130 @@
+/**
+ * Minimum spanning tree of the complete graph on a set of points, where the
+ * weight of an edge is the squared distance between its endpoints like Edge.
+ *
+ * That tree always lies inside the Delaunay triangulation, so instead of the
+ * V^2 edges of the complete graph only the O(V) triangulation edges are
+ * handed to Kruskal, for O(V log V) overall.
+ */
+public class EuclideanMst {
+
+    public final GraphData points;
+
+    public Delaunay delaunay;
+    public GraphData candidates; // triangulation edges on the same vertex ids as points
+
+    public EuclideanMst(GraphData points) {
+        this.points = points;
+    }
+
+    public MstResult run() {
+        return run(StepListener.NONE);
+    }
+
+    /**
+     * Edge ids given to the listener and in the result refer to candidates.
+     */
+    public MstResult run(StepListener listener) {
+        candidates = candidateGraph();
+        return new KruskalEngine(candidates).run(listener);
+    }
+
+    /**
+     * @return - graph on the points with every Delaunay edge
+     */
+    public GraphData candidateGraph() {
+        int n = points.vertexCount;
+        delaunay = new Delaunay(points.x, points.y, n);
+        if (delaunay.unplacedCount > 0) {
+            // degenerate input, triangulate a copy nudged by a tiny amount instead
+            delaunay = jittered();
+        }
+        GraphData g = new GraphData(n, delaunay.trianglesLen / 2 + n);
+        for (int v = 0; v < n; v++) {
+            g.addVertex(points.x[v], points.y[v]);
+        }
+
+        if (delaunay.collinear) {
+            addPath(g);
+            return g;
+        }
+
+        // every inner edge has two half edges, keep one. Hull edges only have one
+        int[] triangles = delaunay.triangles, halfedges = delaunay.halfedges;
+        for (int h = 0; h < delaunay.trianglesLen; h++) {
+            if (h > halfedges[h]) {
+                int u = triangles[h], v = triangles[Delaunay.next(h)];
+                g.addEdge(u, v, g.lengthSquared(u, v));
+            }
+        }
+
+        // duplicates hang off the point they repeat
+        for (int i = 0; i < delaunay.duplicateCount; i++) {
+            int p = delaunay.duplicates[i], q = delaunay.duplicateOf[i];
+            g.addEdge(p, q, g.lengthSquared(p, q));
+        }
+
+        // still unplaced after the nudge (should not happen): join the closest point
+        for (int i = 0; i < delaunay.unplacedCount; i++) {
+            int p = delaunay.unplaced[i];
+            int nearest = -1;
+            double best = Double.POSITIVE_INFINITY;
+            for (int v = 0; v < n; v++) {
+                if (v != p && g.lengthSquared(p, v) < best) {
+                    nearest = v;
+                    best = g.lengthSquared(p, v);
+                }
+            }
+            if (nearest != -1) {
+                g.addEdge(p, nearest, best);
+            }
+        }
+        return g;
+    }
+
+    // moves every point by up to 1e-9 of the point cloud's size, deterministically
+    private Delaunay jittered() {
+        int n = points.vertexCount;
+        double scale = Math.max(spread(points.x, n), spread(points.y, n)) * 1e-9;
+        double[] jx = new double[n], jy = new double[n];
+        java.util.SplittableRandom random = new java.util.SplittableRandom(n);
+        for (int v = 0; v < n; v++) {
+            jx[v] = points.x[v] + (random.nextDouble() - 0.5) * scale;
+            jy[v] = points.y[v] + (random.nextDouble() - 0.5) * scale;
+        }
+        // repeats move with the point they repeat, so they stay duplicates instead of a cluster too tight to triangulate
+        for (int i = 0; i < delaunay.duplicateCount; i++) {
+            jx[delaunay.duplicates[i]] = jx[delaunay.duplicateOf[i]];
+            jy[delaunay.duplicates[i]] = jy[delaunay.duplicateOf[i]];
+        }
+        return new Delaunay(jx, jy, n);
+    }
+
+    // all points on one line: the tree is the path through them in order along the line
+    private void addPath(GraphData g) {
+        int n = g.vertexCount;
+        int[] order = new int[n];
+        double[] key = new double[n];
+        for (int v = 0; v < n; v++) {
+            order[v] = v;
+        }
+        // project onto the line through the two points furthest apart in x or y
+        boolean byX = n == 0 || spread(g.x, n) >= spread(g.y, n);
+        for (int v = 0; v < n; v++) {
+            key[v] = byX ? g.x[v] : g.y[v];
+        }
+        EdgeSort.sort(order, 0, n, key);
+        for (int i = 1; i < n; i++) {
+            g.addEdge(order[i - 1], order[i], g.lengthSquared(order[i - 1], order[i]));
+        }
+    }
+
+    private static double spread(double[] a, int n) {
+        double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            min = Math.min(min, a[i]);
+            max = Math.max(max, a[i]);
+        }
+        return max - min;
+    }
+}
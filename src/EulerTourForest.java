@@ -0,0 +1,341 @@
+import java.util.Arrays;
+
+/**
+ * Euler tour forest (Henzinger-King): each tree of a forest is kept as the
+ * sequence of its Euler tour in a splay tree, so link, cut, connectivity and
+ * tree size are O(log n) amortized.
+ *
+ * A tour holds one node per vertex and two per tree edge, one for each
+ * direction. Vertex nodes carry a flag and a keyed edge id set by the caller,
+ * and every splay node sums them up over its subtree, so a whole tree can be
+ * asked in O(log n) for a flagged vertex or for its smallest key.
+ * Tree edges are named by the caller's edge ids.
+ */
+public class EulerTourForest {
+
+    public int[] left, right, parent;
+    private int[] nodes;     // splay subtree size
+    private int[] vertices;  // vertex nodes in the splay subtree
+    private int[] vertexOf;  // vertex of a vertex node, -1 for an edge node
+
+    // set per vertex node, summed up per subtree
+    private boolean[] flag, anyFlag;
+    private double[] key;
+    private int[] keyEdge;   // id the key belongs to, -1 for none
+    private int[] minNode;   // node with the smallest key in the subtree, -1 for none
+
+    private int used = 0;
+    private int[] freeList = new int[16];
+    private int freeCount = 0;
+
+    private int[] vertexNode = new int[16];
+    private int[] edgeNode = new int[32]; // the two direction nodes of edge e at 2e and 2e + 1, -1 if not in the forest
+
+    public EulerTourForest(int capacity) {
+        capacity = Math.max(capacity, 16);
+        left = new int[capacity];
+        right = new int[capacity];
+        parent = new int[capacity];
+        nodes = new int[capacity];
+        vertices = new int[capacity];
+        vertexOf = new int[capacity];
+        flag = new boolean[capacity];
+        anyFlag = new boolean[capacity];
+        key = new double[capacity];
+        keyEdge = new int[capacity];
+        minNode = new int[capacity];
+        Arrays.fill(edgeNode, -1);
+    }
+
+    /**
+     * Adds v as a tree of its own. Vertices are numbered 0, 1, 2, ... in the order they are added.
+     */
+    public void addVertex(int v) {
+        if (v >= vertexNode.length) {
+            vertexNode = Arrays.copyOf(vertexNode, Math.max(v + 1, 2 * vertexNode.length));
+        }
+        vertexNode[v] = newNode(v);
+    }
+
+    public boolean connected(int u, int v) {
+        int x = vertexNode[u], y = vertexNode[v];
+        if (x == y) {
+            return true;
+        }
+        splay(x);
+        splay(y);
+        // x was the root of its splay tree, it only got a parent if y is in the same one
+        return parent[x] != -1;
+    }
+
+    /**
+     * @return - number of vertices in v's tree
+     */
+    public int size(int v) {
+        int x = vertexNode[v];
+        splay(x);
+        return vertices[x];
+    }
+
+    /**
+     * Joins the trees of u and v with edge e. They must not be connected.
+     */
+    public void link(int u, int v, int e) {
+        ensureEdgeCapacity(e);
+        int forward = newNode(-1), backward = newNode(-1);
+        edgeNode[2 * e] = forward;
+        edgeNode[2 * e + 1] = backward;
+        // u's tour, then over to v, v's tour, and back
+        int tour = join(reroot(u), forward);
+        tour = join(tour, reroot(v));
+        join(tour, backward);
+    }
+
+    /**
+     * Removes tree edge e, splitting its tree in two.
+     */
+    public void cut(int e) {
+        int first = edgeNode[2 * e], second = edgeNode[2 * e + 1];
+        edgeNode[2 * e] = edgeNode[2 * e + 1] = -1;
+        splay(first);
+        int firstAt = count(left[first]);
+        splay(second);
+        if (count(left[second]) < firstAt) {
+            int t = first;
+            first = second;
+            second = t;
+        }
+        // the tour is  before first inside second after,  and inside is the part that comes off
+        splay(first);
+        int before = detachLeft(first);
+        splay(second);
+        int after = detachRight(second);
+        detachLeft(second); // first and inside
+        splay(first);
+        detachRight(first); // inside, a tour of its own now
+        join(before, after);
+        free(first);
+        free(second);
+    }
+
+    /**
+     * Gives tree edge from the id to.
+     */
+    public void moveEdge(int from, int to) {
+        ensureEdgeCapacity(to);
+        edgeNode[2 * to] = edgeNode[2 * from];
+        edgeNode[2 * to + 1] = edgeNode[2 * from + 1];
+        edgeNode[2 * from] = edgeNode[2 * from + 1] = -1;
+    }
+
+    /**
+     * Sets what v contributes to its tree: a flag, and a key with the id it belongs to (-1 for none).
+     */
+    public void setVertex(int v, boolean flagged, double k, int id) {
+        int x = vertexNode[v];
+        splay(x);
+        flag[x] = flagged;
+        key[x] = k;
+        keyEdge[x] = id;
+        update(x);
+    }
+
+    /**
+     * @return - some flagged vertex in v's tree, -1 if there is none
+     */
+    public int findFlagged(int v) {
+        int x = vertexNode[v];
+        splay(x);
+        if (!anyFlag[x]) {
+            return -1;
+        }
+        while (!flag[x]) {
+            x = left[x] != -1 && anyFlag[left[x]] ? left[x] : right[x];
+        }
+        splay(x);
+        return vertexOf[x];
+    }
+
+    /**
+     * @return - id with the smallest key in v's tree, ties going to the smaller id, -1 if there is none
+     */
+    public int minEdge(int v) {
+        int x = vertexNode[v];
+        splay(x);
+        return minNode[x] == -1 ? -1 : keyEdge[minNode[x]];
+    }
+
+    // ============================ Tours =================================
+
+    // rotates v's tour to start at v, returns the splay root
+    private int reroot(int v) {
+        int x = vertexNode[v];
+        splay(x);
+        int before = detachLeft(x);
+        return join(x, before);
+    }
+
+    // concatenates the sequences of splay roots a and b (either may be -1), returns the new root
+    private int join(int a, int b) {
+        if (a == -1) {
+            return b;
+        }
+        if (b == -1) {
+            return a;
+        }
+        int last = a;
+        while (right[last] != -1) {
+            last = right[last];
+        }
+        splay(last);
+        right[last] = b;
+        parent[b] = last;
+        update(last);
+        return last;
+    }
+
+    // x must be a splay root; returns its left part as a splay tree of its own
+    private int detachLeft(int x) {
+        int l = left[x];
+        if (l != -1) {
+            parent[l] = -1;
+            left[x] = -1;
+            update(x);
+        }
+        return l;
+    }
+
+    private int detachRight(int x) {
+        int r = right[x];
+        if (r != -1) {
+            parent[r] = -1;
+            right[x] = -1;
+            update(x);
+        }
+        return r;
+    }
+
+    // ============================ Splay trees =================================
+
+    private int count(int x) {
+        return x == -1 ? 0 : nodes[x];
+    }
+
+    private void update(int x) {
+        int l = left[x], r = right[x];
+        int n = 1, vs = vertexOf[x] >= 0 ? 1 : 0;
+        boolean any = flag[x];
+        int m = keyEdge[x] != -1 ? x : -1;
+        if (l != -1) {
+            n += nodes[l];
+            vs += vertices[l];
+            any |= anyFlag[l];
+            m = smaller(m, minNode[l]);
+        }
+        if (r != -1) {
+            n += nodes[r];
+            vs += vertices[r];
+            any |= anyFlag[r];
+            m = smaller(m, minNode[r]);
+        }
+        nodes[x] = n;
+        vertices[x] = vs;
+        anyFlag[x] = any;
+        minNode[x] = m;
+    }
+
+    private int smaller(int a, int b) {
+        if (a == -1) {
+            return b;
+        }
+        if (b == -1) {
+            return a;
+        }
+        if (key[a] != key[b]) {
+            return key[a] < key[b] ? a : b;
+        }
+        return keyEdge[a] <= keyEdge[b] ? a : b;
+    }
+
+    private void rotate(int x) {
+        int p = parent[x], g = parent[p];
+        if (g != -1) {
+            if (left[g] == p) left[g] = x; else right[g] = x;
+        }
+        parent[x] = g;
+        if (left[p] == x) {
+            left[p] = right[x];
+            if (right[x] != -1) parent[right[x]] = p;
+            right[x] = p;
+        } else {
+            right[p] = left[x];
+            if (left[x] != -1) parent[left[x]] = p;
+            left[x] = p;
+        }
+        parent[p] = x;
+        update(p);
+        update(x);
+    }
+
+    private void splay(int x) {
+        while (parent[x] != -1) {
+            int p = parent[x], g = parent[p];
+            if (g != -1) {
+                boolean zigZig = (left[g] == p) == (left[p] == x);
+                rotate(zigZig ? p : x);
+            }
+            rotate(x);
+        }
+    }
+
+    // ============================ Nodes =================================
+
+    private int newNode(int v) {
+        int x;
+        if (freeCount > 0) {
+            x = freeList[--freeCount];
+        } else {
+            if (used == left.length) {
+                grow(2 * used);
+            }
+            x = used++;
+        }
+        left[x] = right[x] = parent[x] = -1;
+        vertexOf[x] = v;
+        flag[x] = false;
+        key[x] = 0;
+        keyEdge[x] = -1;
+        update(x);
+        return x;
+    }
+
+    private void free(int x) {
+        if (freeCount == freeList.length) {
+            freeList = Arrays.copyOf(freeList, 2 * freeCount);
+        }
+        freeList[freeCount++] = x;
+    }
+
+    private void grow(int size) {
+        left = Arrays.copyOf(left, size);
+        right = Arrays.copyOf(right, size);
+        parent = Arrays.copyOf(parent, size);
+        nodes = Arrays.copyOf(nodes, size);
+        vertices = Arrays.copyOf(vertices, size);
+        vertexOf = Arrays.copyOf(vertexOf, size);
+        flag = Arrays.copyOf(flag, size);
+        anyFlag = Arrays.copyOf(anyFlag, size);
+        key = Arrays.copyOf(key, size);
+        keyEdge = Arrays.copyOf(keyEdge, size);
+        minNode = Arrays.copyOf(minNode, size);
+    }
+
+    private void ensureEdgeCapacity(int e) {
+        if (2 * e + 1 < edgeNode.length) {
+            return;
+        }
+        int old = edgeNode.length;
+        edgeNode = Arrays.copyOf(edgeNode, Math.max(2 * e + 2, 2 * old));
+        Arrays.fill(edgeNode, old, edgeNode.length, -1);
+    }
+}
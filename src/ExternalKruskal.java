@@ -0,0 +1,360 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Out of core Kruskal's algorithm for edge sets that do not fit on the heap.
+ *
+ * The edge stream is cut into runs that fit in the memory budget. Each run
+ * is sorted in memory and spilled to a temp file, then the runs are k-way
+ * merged straight into the union-find. If there are more runs than the
+ * budget has merge buffers for, groups of runs are merged into longer runs
+ * first, one extra pass each time. Only the union-find and the result are
+ * O(V), everything else is bounded by the budget.
+ *
+ * Edge ids are positions in the stream, so the result is the same as
+ * KruskalEngine on the same edges, ties included.
+ */
+public class ExternalKruskal {
+
+    // run record on disk: double weight, int u, int v, int id
+    public static final int RECORD_BYTES = 20;
+    // in memory per edge while a run is collected: u, v, weight and the sort order
+    private static final int MEMORY_BYTES_PER_EDGE = 20;
+    private static final int MIN_BUFFER_BYTES = RECORD_BYTES * 4096;
+    // more open runs than this are merged in extra passes, to stay clear of file handle limits
+    private static final int MAX_FAN_IN = 256;
+
+    public final int vertexCount;
+    public final long memoryBudget;
+    public final Path tempDir;
+
+    public UnionFind sets;
+
+    // I/O report of the last run
+    public int runs = 0;
+    public int mergePasses = 0;
+    public long bytesWritten = 0;
+    public long bytesRead = 0;
+    public long edgesRead = 0;
+
+    /**
+     * @param vertexCount - vertices of the streamed graph, ids 0 .. vertexCount-1
+     * @param memoryBudget - bytes to use for sorting and merge buffers, on top of the O(V) union-find
+     * @param tempDir - where to spill the sorted runs
+     */
+    public ExternalKruskal(int vertexCount, long memoryBudget, Path tempDir) {
+        if (memoryBudget < 2L * MIN_BUFFER_BYTES) {
+            throw new IllegalArgumentException("memory budget must be at least " + 2 * MIN_BUFFER_BYTES + " bytes");
+        }
+        this.vertexCount = vertexCount;
+        this.memoryBudget = memoryBudget;
+        this.tempDir = tempDir;
+    }
+
+    public MstResult run(EdgeStream edges) throws IOException {
+        return run(edges, StepListener.NONE);
+    }
+
+    public MstResult run(EdgeStream edges, StepListener listener) throws IOException {
+        runs = 0;
+        mergePasses = 0;
+        bytesWritten = 0;
+        bytesRead = 0;
+        edgesRead = 0;
+        sets = new UnionFind(vertexCount);
+        MstResult mst = new MstResult(vertexCount - 1);
+
+        ArrayList<Path> files = new ArrayList<>();
+        try {
+            // the spill buffer comes out of the budget too
+            int capacity = (int) Math.min(Integer.MAX_VALUE - 8, (memoryBudget - MIN_BUFFER_BYTES) / MEMORY_BYTES_PER_EDGE);
+            int size = Math.min(capacity, 1 << 16);
+            int[] u = new int[size], v = new int[size], order = new int[size];
+            double[] w = new double[size];
+
+            boolean more = true;
+            while (more) {
+                int base = (int) edgesRead;
+                int count = 0;
+                while (count < capacity && (more = edges.next())) {
+                    if (count == size) {
+                        // grow up to the budget, so short streams don't allocate all of it
+                        size = (int) Math.min(capacity, 2L * size);
+                        u = Arrays.copyOf(u, size);
+                        v = Arrays.copyOf(v, size);
+                        order = Arrays.copyOf(order, size);
+                        w = Arrays.copyOf(w, size);
+                    }
+                    u[count] = edges.u();
+                    v[count] = edges.v();
+                    w[count] = edges.weight();
+                    order[count] = count;
+                    count++;
+                    if (++edgesRead > Integer.MAX_VALUE) {
+                        throw new IOException("edge ids must fit in an int, stream has more than " + Integer.MAX_VALUE + " edges");
+                    }
+                }
+                if (count == 0) {
+                    break;
+                }
+                // local order is stream order, so ties still sort by edge id
+                EdgeSort.sort(order, 0, count, w);
+                runs++;
+
+                if (!more && files.isEmpty()) {
+                    // everything fit in one run, no need to touch the disk
+                    for (int i = 0; i < count; i++) {
+                        int j = order[i];
+                        offer(base + j, u[j], v[j], w[j], mst, listener);
+                    }
+                    return mst;
+                }
+                files.add(spill(u, v, w, order, base, count));
+            }
+            u = v = order = null;
+            w = null;
+
+            // merge until every remaining run has a buffer
+            int fanIn = (int) Math.max(2, Math.min(MAX_FAN_IN, memoryBudget / MIN_BUFFER_BYTES - 1));
+            while (files.size() > fanIn) {
+                ArrayList<Path> merged = new ArrayList<>();
+                for (int from = 0; from < files.size(); from += fanIn) {
+                    ArrayList<Path> group = new ArrayList<>(files.subList(from, Math.min(from + fanIn, files.size())));
+                    merged.add(mergeToFile(group));
+                    for (Path p : group) {
+                        Files.delete(p);
+                    }
+                }
+                files = merged;
+                mergePasses++;
+            }
+
+            // final pass feeds the union-find
+            mergePasses++;
+            RunMerger merger = new RunMerger(files);
+            try {
+                while (merger.next()) {
+                    RunReader r = merger.current;
+                    offer(r.id, r.u, r.v, r.w, mst, listener);
+                    if (mst.edgeCount == vertexCount - 1) {
+                        break; // spanning tree is complete, the rest can only close cycles
+                    }
+                }
+            } finally {
+                merger.close();
+            }
+            return mst;
+        } finally {
+            for (Path p : files) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    private void offer(int e, int u, int v, double w, MstResult mst, StepListener listener) {
+        listener.edgeConsidered(e);
+        int root1 = sets.find(u);
+        int root2 = sets.find(v);
+        if (root1 != root2) {
+            sets.link(root1, root2);
+            mst.add(e, w);
+            listener.edgeAccepted(e);
+        } else {
+            listener.edgeRejected(e);
+        }
+    }
+
+    private Path spill(int[] u, int[] v, double[] w, int[] order, int base, int count) throws IOException {
+        Path file = Files.createTempFile(tempDir, "kruskal-run", ".bin");
+        try (RunWriter out = new RunWriter(file, MIN_BUFFER_BYTES)) {
+            for (int i = 0; i < count; i++) {
+                int j = order[i];
+                out.write(w[j], u[j], v[j], base + j);
+            }
+        }
+        return file;
+    }
+
+    private Path mergeToFile(ArrayList<Path> group) throws IOException {
+        Path file = Files.createTempFile(tempDir, "kruskal-run", ".bin");
+        RunMerger merger = new RunMerger(group);
+        try (RunWriter out = new RunWriter(file, bufferBytes(group.size() + 1))) {
+            while (merger.next()) {
+                RunReader r = merger.current;
+                out.write(r.w, r.u, r.v, r.id);
+            }
+        } finally {
+            merger.close();
+        }
+        return file;
+    }
+
+    // splits the budget between this many buffers, rounded down to whole records
+    private int bufferBytes(int buffers) {
+        long bytes = Math.min(1 << 24, memoryBudget / buffers);
+        return (int) Math.max(RECORD_BYTES, bytes - bytes % RECORD_BYTES);
+    }
+
+    private class RunWriter implements AutoCloseable {
+        final FileChannel channel;
+        final ByteBuffer buffer;
+
+        RunWriter(Path file, int bytes) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            buffer = ByteBuffer.allocateDirect(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        void write(double w, int u, int v, int id) throws IOException {
+            if (buffer.remaining() < RECORD_BYTES) {
+                flush();
+            }
+            buffer.putDouble(w).putInt(u).putInt(v).putInt(id);
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                bytesWritten += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+            channel.close();
+        }
+    }
+
+    private class RunReader {
+        final FileChannel channel;
+        final ByteBuffer buffer;
+        double w;
+        int u, v, id;
+
+        RunReader(Path file, int bytes) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            buffer = ByteBuffer.allocateDirect(bytes).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.flip(); // start empty
+        }
+
+        boolean next() throws IOException {
+            if (!buffer.hasRemaining()) {
+                buffer.clear();
+                while (buffer.hasRemaining()) {
+                    int read = channel.read(buffer);
+                    if (read < 0) {
+                        break;
+                    }
+                    bytesRead += read;
+                }
+                buffer.flip();
+                if (!buffer.hasRemaining()) {
+                    return false;
+                }
+            }
+            w = buffer.getDouble();
+            u = buffer.getInt();
+            v = buffer.getInt();
+            id = buffer.getInt();
+            return true;
+        }
+
+        // same order as EdgeSort: weight, then edge id
+        boolean less(RunReader o) {
+            return w < o.w || (w == o.w && id < o.id);
+        }
+    }
+
+    /**
+     * K-way merge of sorted runs through a binary heap of readers.
+     */
+    private class RunMerger {
+        final RunReader[] heap;
+        int size = 0;
+        RunReader current;
+
+        RunMerger(ArrayList<Path> files) throws IOException {
+            heap = new RunReader[files.size()];
+            int bytes = bufferBytes(files.size() + 1);
+            try {
+                for (Path p : files) {
+                    RunReader r = new RunReader(p, bytes);
+                    heap[size++] = r;
+                    if (!r.next()) {
+                        r.channel.close();
+                        size--;
+                    }
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+            for (int i = size / 2 - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+
+        boolean next() throws IOException {
+            if (current != null) {
+                // advance the reader handed out last time and put it back in place
+                if (current.next()) {
+                    siftDown(0);
+                } else {
+                    current.channel.close();
+                    heap[0] = heap[--size];
+                    if (size > 0) {
+                        siftDown(0);
+                    }
+                }
+            }
+            if (size == 0) {
+                current = null;
+                return false;
+            }
+            current = heap[0];
+            return true;
+        }
+
+        void siftDown(int i) {
+            RunReader r = heap[i];
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && heap[child + 1].less(heap[child])) {
+                    child++;
+                }
+                if (!heap[child].less(r)) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = r;
+        }
+
+        void close() throws IOException {
+            for (int i = 0; i < size; i++) {
+                heap[i].channel.close();
+            }
+            size = 0;
+        }
+    }
+
+    /**
+     * @return - one line summary of the I/O of the last run
+     */
+    public String ioReport() {
+        return "edges read = " + edgesRead + ", runs = " + runs + ", merge passes = " + mergePasses
+                + ", bytes written = " + bytesWritten + ", bytes read = " + bytesRead;
+    }
+}
@@ -0,0 +1,234 @@
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Headless Filter-Kruskal.
+ *
+ * Instead of sorting every edge up front, the edge ids are split around a
+ * sampled pivot weight in parallel. The light half is solved first, then
+ * heavy edges whose endpoints are already connected are dropped, also in
+ * parallel, before the rest of the heavy half is split again. On dense
+ * graphs most edges are dropped without ever being sorted.
+ * Works on a private array of edge ids, the graph is never modified.
+ */
+public class FilterKruskalEngine {
+
+    // ranges this small are sorted and scanned like plain Kruskal
+    public static final int BASE_CASE_SIZE = 4096;
+    private static final int SAMPLE_SIZE = 31;
+
+    public final GraphData graph;
+    public final int componentCount;
+    public final ForkJoinPool pool;
+
+    public UnionFind sets;
+    public long sortedEdges = 0;   // edges that reached a base case sort
+    public long filteredEdges = 0; // heavy edges dropped without being sorted
+    public int partitions = 0;
+
+    private int[] ids, tmp;
+    private long examined; // edges scanned by the base cases plus edges checked by the filters
+    private MstResult mst;
+    private StepListener listener;
+
+    public FilterKruskalEngine(GraphData graph) {
+        this(graph, 1, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param componentCount - connected components of graph, if known, so a
+     *                         disconnected graph can stop early too
+     */
+    public FilterKruskalEngine(GraphData graph, int componentCount) {
+        this(graph, componentCount, ForkJoinPool.commonPool());
+    }
+
+    public FilterKruskalEngine(GraphData graph, int componentCount, ForkJoinPool pool) {
+        this.graph = graph;
+        this.componentCount = componentCount;
+        this.pool = pool;
+    }
+
+    public MstResult run() {
+        return run(StepListener.NONE);
+    }
+
+    /**
+     * The listener is only called from the thread that calls run().
+     */
+    public MstResult run(StepListener listener) {
+        int m = graph.edgeCount;
+        AlgorithmMetrics metrics = new AlgorithmMetrics("filterKruskal", graph);
+        metrics.phase("setup");
+        this.listener = listener;
+        examined = 0;
+        ids = new int[m];
+        tmp = new int[m];
+        for (int e = 0; e < m; e++) {
+            ids[e] = e;
+        }
+        sets = new UnionFind(graph.vertexCount);
+        mst = new MstResult(graph.vertexCount - 1);
+
+        metrics.phase("solve");
+        filterKruskal(0, m);
+
+        ids = tmp = null;
+        metrics.edgesExamined = examined;
+        metrics.finds = sets.findCalls;
+        metrics.findSteps = sets.findSteps;
+        metrics.maxFindDepth = sets.maxFindDepth;
+        metrics.unions = mst.edgeCount;
+        mst.metrics = metrics.finish();
+        return mst;
+    }
+
+    // a spanning forest of V vertices and C components has V - C edges
+    private boolean spanning() {
+        return sets.sets <= componentCount;
+    }
+
+    private void filterKruskal(int from, int to) {
+        if (to - from <= BASE_CASE_SIZE) {
+            kruskal(from, to);
+            return;
+        }
+        int pivot = samplePivot(from, to);
+        int split = partition(from, to, pivot);
+        partitions++;
+
+        filterKruskal(from, split);
+        if (spanning()) {
+            filteredEdges += to - split;
+            return;
+        }
+        int end = filter(split, to);
+        filteredEdges += to - end;
+        filterKruskal(split, end);
+    }
+
+    private void kruskal(int from, int to) {
+        GraphData g = graph;
+        EdgeSort.sort(ids, from, to, g.weight);
+        sortedEdges += to - from;
+        int i = from;
+        for (; i < to && !spanning(); i++) {
+            int e = ids[i];
+            listener.edgeConsidered(e);
+
+            int root1 = sets.find(g.edgeU[e]);
+            int root2 = sets.find(g.edgeV[e]);
+            if (root1 != root2) {
+                sets.link(root1, root2);
+                mst.add(e, g.weight[e]);
+                listener.edgeAccepted(e);
+            } else {
+                listener.edgeRejected(e);
+            }
+        }
+        examined += i - from;
+    }
+
+    // median of evenly spaced samples. The samples are distinct ids, so at least
+    // one sorts below the median and both halves of the split are non empty
+    private int samplePivot(int from, int to) {
+        int[] sample = new int[SAMPLE_SIZE];
+        long step = (long) (to - from) / SAMPLE_SIZE;
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            sample[i] = ids[from + (int) (i * step)];
+        }
+        EdgeSort.sort(sample, 0, SAMPLE_SIZE, graph.weight);
+        return sample[SAMPLE_SIZE / 2];
+    }
+
+    /**
+     * Moves edges lighter than pivot to the front of [from, to).
+     *
+     * @return - index of the first heavy edge
+     */
+    private int partition(int from, int to, int pivot) {
+        double[] w = graph.weight;
+        int size = to - from;
+        int chunks = chunksFor(size);
+        int chunkSize = (size + chunks - 1) / chunks;
+        int[] light = new int[chunks + 1];
+        int[] heavy = new int[chunks + 1];
+
+        ParallelFor.run(pool, 0, chunks, 1, (lo, hi) -> {
+            for (int c = lo; c < hi; c++) {
+                int count = 0;
+                int end = Math.min(to, from + (c + 1) * chunkSize);
+                for (int i = from + c * chunkSize; i < end; i++) {
+                    if (EdgeSort.less(ids[i], pivot, w)) {
+                        count++;
+                    }
+                }
+                light[c + 1] = count;
+                heavy[c + 1] = Math.max(0, end - (from + c * chunkSize)) - count;
+            }
+        });
+        for (int c = 0; c < chunks; c++) {
+            light[c + 1] += light[c];
+            heavy[c + 1] += heavy[c];
+        }
+        int split = from + light[chunks];
+
+        ParallelFor.run(pool, 0, chunks, 1, (lo, hi) -> {
+            for (int c = lo; c < hi; c++) {
+                int l = from + light[c];
+                int h = split + heavy[c];
+                int end = Math.min(to, from + (c + 1) * chunkSize);
+                for (int i = from + c * chunkSize; i < end; i++) {
+                    int e = ids[i];
+                    if (EdgeSort.less(e, pivot, w)) {
+                        tmp[l++] = e;
+                    } else {
+                        tmp[h++] = e;
+                    }
+                }
+            }
+        });
+        System.arraycopy(tmp, from, ids, from, size);
+        return split;
+    }
+
+    /**
+     * Drops edges in [from, to) whose endpoints are already connected.
+     *
+     * @return - end of the kept edges, which start at from
+     */
+    private int filter(int from, int to) {
+        int[] edgeU = graph.edgeU, edgeV = graph.edgeV;
+        UnionFind uf = sets;
+        int size = to - from;
+        int chunks = chunksFor(size);
+        int chunkSize = (size + chunks - 1) / chunks;
+        int[] kept = new int[chunks + 1];
+        examined += size;
+
+        // no unions happen during the filter, so the read only root() is safe to share
+        ParallelFor.run(pool, 0, chunks, 1, (lo, hi) -> {
+            for (int c = lo; c < hi; c++) {
+                int out = from + c * chunkSize;
+                int end = Math.min(to, from + (c + 1) * chunkSize);
+                for (int i = from + c * chunkSize; i < end; i++) {
+                    int e = ids[i];
+                    if (uf.root(edgeU[e]) != uf.root(edgeV[e])) {
+                        tmp[out++] = e;
+                    }
+                }
+                kept[c + 1] = out - (from + c * chunkSize);
+            }
+        });
+        int end = from;
+        for (int c = 0; c < chunks; c++) {
+            int start = from + c * chunkSize;
+            System.arraycopy(tmp, start, ids, end, kept[c + 1]);
+            end += kept[c + 1];
+        }
+        return end;
+    }
+
+    private int chunksFor(int size) {
+        return Math.max(1, Math.min(pool.getParallelism() * 8, size / 1024));
+    }
+}
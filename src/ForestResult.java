@@ -0,0 +1,27 @@
+/**
+ * Output of SpanningForestEngine: a minimum spanning forest with one tree
+ * per connected component. The tree of component c is
+ * edges[treeStart[c]] .. edges[treeStart[c + 1] - 1].
+ */
+public class ForestResult extends MstResult {
+
+    public final ConnectedComponents components;
+    public final int[] treeStart;
+    public final double[] treeWeight;
+
+    public ForestResult(ConnectedComponents components) {
+        super(components.graph.vertexCount - components.count);
+        this.components = components;
+        this.treeStart = new int[components.count + 1];
+        this.treeWeight = new double[components.count];
+    }
+
+    public int treeCount() {
+        return components.count;
+    }
+
+    @Override
+    public String toString() {
+        return "MSF trees = " + components.count + ", edges = " + edgeCount + ", weight = " + weight;
+    }
+}
@@ -2,35 +2,66 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
+import java.awt.event.MouseMotionListener;
+import java.awt.event.MouseWheelEvent;
+import java.awt.event.MouseWheelListener;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
-public class Graph extends JPanel implements MouseListener {
+public class Graph extends JPanel implements MouseListener, MouseMotionListener, MouseWheelListener {
     // Colors for animations
     public static Color DEFAULT_C = Color.BLACK,
                         HIGHLIGHT = Color.GREEN,
                         FINAL_C = Color.RED,
                         CURRENT_C = Color.BLUE;
 
+    // colors by the indices GraphData stores them as
+    public static final Color[] PALETTE = new Color[4];
+    static {
+        PALETTE[GraphData.DEFAULT] = DEFAULT_C;
+        PALETTE[GraphData.HIGHLIGHT] = HIGHLIGHT;
+        PALETTE[GraphData.FINAL] = FINAL_C;
+        PALETTE[GraphData.CURRENT] = CURRENT_C;
+    }
+
     // Nodes on the graph
     public ArrayList<Node> nodes = new ArrayList<>();
-    public Map nameToNode = new HashMap<String, Node>();
 
     // Edges on the graph
     public ArrayList<Edge> edges = new ArrayList<>();
-    public Map<String, Edge> nameToEdge = new HashMap<>();
+    public EdgeHash edgeIndex = new EdgeHash(); // edge id by its two node ids
     public Node edge_node1;
 
-    // MST animations variables (kruskal + prim)
+    // Array form of the nodes and edges above, ids match their index in the lists.
+    // Holds positions, weights and colors, Node and Edge only point into it.
+    // This is what the algorithm engines run on.
+    public GraphData data = new GraphData();
+
+    // MST kept up to date on every edge change, see currentMst()
+    public DynamicMst dynamicMst = new DynamicMst();
+
+    // node positions, for hit-testing and nearest neighbour queries
+    public SpatialGrid spatialIndex = new SpatialGrid(data);
+
+    // draws every node and edge, there are no child components per node
+    public GraphRenderer renderer = new GraphRenderer(this);
+
+    // MST animations variables (kruskal + prim + boruvka + forest)
     public String method = "kruskal";
     public SwingWorker kruskal = new Kruskal(this);
     public SwingWorker prim = new Prim(this);
-    public boolean paused = true;
+    public SwingWorker boruvka = new Boruvka(this);
+    public SwingWorker euclidean = new Euclidean(this);
+    public SwingWorker forest = new SpanningForest(this);
+    // pause and speed of whichever animation is running
+    public AnimationControl control = new AnimationControl();
 
     // Searching animation variables (BFS + DFS)
     public SwingWorker BFS = new BreadthFirstSearch(this);
     public SwingWorker DFS = new DepthFirstSearch(this);
+    public SwingWorker shortestPath = new ShortestPath(this, false);
     public Node startNode = null;
     public Node desiredNode = null;
 
@@ -46,8 +77,14 @@ public class Graph extends JPanel implements MouseListener {
 
     public final int GRAPH_SIZE = 1000;
 
+    // view zooms by this factor per mouse wheel notch
+    public static final double ZOOM_STEP = 1.15;
+    private int dragX, dragY; // last mouse position while panning
+
     public Graph() {
         this.addMouseListener(this);
+        this.addMouseMotionListener(this);
+        this.addMouseWheelListener(this);
 
         // init graph
         setLayout(null); // absolute layout
@@ -56,7 +93,9 @@ public class Graph extends JPanel implements MouseListener {
     }
 
     public void setGraphState(int state) {
-        System.out.println("state = " + state);
+        if (Trace.DEBUG) {
+            Trace.log("state = " + state);
+        }
         // don't reset colors when forming edges
 //        if (state != 2 && state != 5) { // edge_node1 != null) {
 //            resetNodes();
@@ -70,7 +109,7 @@ public class Graph extends JPanel implements MouseListener {
     }
 
     public boolean isPaused() {
-        return this.paused;
+        return control.paused;
     }
 
     /**
@@ -81,73 +120,255 @@ public class Graph extends JPanel implements MouseListener {
     @Override
     public void paintComponent(Graphics g) {
         super.paintComponent(g);
-//        Graphics2D g2d = (Graphics2D) g;
-
-        // draw edges
-        ((Graphics2D) g).setStroke(new BasicStroke(10));
-        for(Edge e : edges) {
-            Node n1 = e.n1;
-            Node n2 = e.n2;
-            g.setColor(e.color);
-            g.drawLine((int)n1.vertex.getX(), (int)n1.vertex.getY(), (int)n2.vertex.getX(), (int)n2.vertex.getY());
-        }
+        renderer.paint(g, getWidth(), getHeight(), getBackground());
     }
 
+    /**
+     * Repaints what changed since the last paint, only the dirty area if
+     * just colors changed.
+     */
     public void refreshGraph() {
-        repaint();
+        Rectangle area = renderer.pendingArea();
+        if (area == null) {
+            repaint();
+        } else if (!area.isEmpty()) {
+            repaint(area);
+        }
         revalidate();
     }
 
+    /**
+     * @return - index of c in PALETTE
+     */
+    public static byte colorIndex(Color c) {
+        for (byte i = 0; i < PALETTE.length; i++) {
+            if (PALETTE[i] == c) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("color not in palette: " + c);
+    }
+
     // Set all nodes to default colors and not visited
     public void resetNodes() {
-        for (Node n : nodes) {
-            n.setColor(DEFAULT_C);
-            n.setVisited(false);
-        }
+        Arrays.fill(data.vertexColor, 0, data.vertexCount, GraphData.DEFAULT);
+        Arrays.fill(data.visited, 0, data.vertexCount, false);
+        renderer.invalidateAll();
         refreshGraph();
     }
 
     // Set all Edges to default color
     public void resetEdges() {
-        for (Edge e : edges) {
-            e.setColor(DEFAULT_C);
-        }
+        Arrays.fill(data.edgeColor, 0, data.edgeCount, GraphData.DEFAULT);
+        renderer.invalidateAll();
         refreshGraph();
     }
 
-    public void addNode(Node n) {
-        nameToNode.put(n.getName(), n);
+    /**
+     * Adds a vertex at (x, y).
+     *
+     * @return - node for the new vertex
+     */
+    public Node addNode(int x, int y) {
+        int id = data.addVertex(x, y);
+        Node n = new Node(this, id);
+        dynamicMst.addVertex();
+        spatialIndex.insert(id);
         this.nodes.add(n);
-        add(n);
+        renderer.structureChanged();
         refreshGraph();
+        return n;
     }
 
-    public void addEdge(Edge e) {
-        nameToEdge.put(e.name, e);
+    /**
+     * Adds an edge weighted by its squared length.
+     *
+     * @return - the new edge
+     */
+    public Edge addEdge(Node n1, Node n2) {
+        return addEdge(n1, n2, data.lengthSquared(n1.id, n2.id));
+    }
+
+    public Edge addEdge(Node n1, Node n2, double weight) {
+        int id = data.addEdge(n1.id, n2.id, weight);
+        Edge e = new Edge(this, id);
+        dynamicMst.insert(id, n1.id, n2.id, weight);
+        edgeIndex.add(n1.id, n2.id, id);
         this.edges.add(e);
+        renderer.structureChanged();
+        refreshGraph();
+        return e;
+    }
+
+    /**
+     * Removes an edge. The last edge takes over its id so ids stay dense.
+     */
+    public void removeEdge(Edge e) {
+        // a parallel edge loaded from a file may not be the one indexed for its pair
+        int u = data.edgeU[e.id], v = data.edgeV[e.id];
+        if (edgeIndex.get(u, v) == e.id) {
+            edgeIndex.remove(u, v);
+        }
+        dynamicMst.delete(e.id);
+        int moved = data.removeEdge(e.id);
+        if (moved != -1) {
+            Edge last = edges.get(moved);
+            if (edgeIndex.get(data.edgeU[e.id], data.edgeV[e.id]) == moved) {
+                edgeIndex.put(data.edgeU[e.id], data.edgeV[e.id], e.id);
+            }
+            last.id = e.id;
+            edges.set(e.id, last);
+            dynamicMst.moveEdge(moved, e.id);
+        }
+        edges.remove(edges.size() - 1);
+        e.id = -1;
+        renderer.structureChanged();
+        refreshGraph();
+    }
+
+    public void reweightEdge(Edge e, double weight) {
+        data.weight[e.id] = weight;
+        dynamicMst.reweight(e.id, weight);
         refreshGraph();
     }
 
     /**
-     * Handles node creation.
+     * Removes every node and edge.
+     */
+    public void clear() {
+        killAllAnimation();
+        nodes.clear();
+        edges.clear();
+        edgeIndex.clear();
+        edge_node1 = null;
+        startNode = null;
+        desiredNode = null;
+        data = new GraphData();
+        dynamicMst = new DynamicMst();
+        spatialIndex = new SpatialGrid(data);
+        renderer.structureChanged();
+        refreshGraph();
+    }
+
+    /**
+     * Writes the graph to a binary graph file, see GraphFile.
+     */
+    public void save(Path path) throws IOException {
+        GraphFile.write(data, path);
+    }
+
+    /**
+     * Replaces the graph with the contents of a graph file.
+     * Every vertex becomes a Node, so this is meant for files small enough to draw.
+     */
+    public void load(Path path) throws IOException {
+        GraphFile file = GraphFile.open(path);
+        clear();
+        for (int v = 0; v < file.vertexCount; v++) {
+            addNode((int) file.x.get(v), (int) file.y.get(v));
+        }
+        for (int e = 0; e < file.edgeCount; e++) {
+            addEdge(nodes.get(file.edgeU.get(e)), nodes.get(file.edgeV.get(e)), file.weight.get(e));
+        }
+        fitView();
+    }
+
+    /**
+     * @return - edges of the minimum spanning forest of the graph as it is right now
+     */
+    public ArrayList<Edge> currentMst() {
+        ArrayList<Edge> mst = new ArrayList<>(dynamicMst.treeEdgeCount);
+        for (int id : dynamicMst.treeEdges()) {
+            mst.add(edges.get(id));
+        }
+        return mst;
+    }
+
+    /**
+     * @return - node drawn at screen point (x, y), or null if there is none
+     */
+    public Node nodeAt(int x, int y) {
+        // nodes are drawn the same size at every zoom
+        int id = spatialIndex.nearest(renderer.worldX(x), renderer.worldY(y), Node.NODE_SIZE / 2.0 / renderer.scale);
+        return id == -1 ? null : nodes.get(id);
+    }
+
+    /**
+     * Connects every node to its k nearest nodes, skipping edges that already exist.
+     */
+    public void connectKNearest(int k) {
+        int[] ids = new int[k];
+        double[] dist = new double[k];
+        for (int i = 0, n = nodes.size(); i < n; i++) {
+            Node u = nodes.get(i);
+            int found = spatialIndex.kNearest(data.x[u.id], data.y[u.id], k, u.id, ids, dist);
+            for (int j = 0; j < found; j++) {
+                Node v = nodes.get(ids[j]);
+                if (findEdge(u, v) == null) {
+                    addEdge(u, v);
+                }
+            }
+        }
+    }
+
+    /**
+     * Handles node creation and clicks on nodes.
      * Once "Add Node" has been selected, a click anywhere on the graph
-     * will spawn a node Jpanel there, and therefore prevent multiple nodes
-     * from being at the same location.
+     * will spawn a node there, unless a node is already drawn there.
+     * A click on a node is passed on to it.
      *
      * @param e - where mouse was clicked on graph
      */
     @Override
     public void mouseClicked(MouseEvent e) {
-        if (graph_state == 0) {
+        Node hit = nodeAt(e.getX(), e.getY());
+        if (hit != null) {
+            hit.clicked();
+        } else if (graph_state == 0) {
             // create a node where mouse was clicked
-            Node n = new Node(e.getX(), e.getY(), this);
-            addNode(n);
+            addNode((int) Math.round(renderer.worldX(e.getX())), (int) Math.round(renderer.worldY(e.getY())));
         }
     }
 
     @Override
     public void mousePressed(MouseEvent e) {
+        dragX = e.getX();
+        dragY = e.getY();
+    }
+
+    /**
+     * Dragging pans the view.
+     */
+    @Override
+    public void mouseDragged(MouseEvent e) {
+        renderer.pan(e.getX() - dragX, e.getY() - dragY);
+        dragX = e.getX();
+        dragY = e.getY();
+        refreshGraph();
+    }
 
+    @Override
+    public void mouseMoved(MouseEvent e) {
+
+    }
+
+    /**
+     * The mouse wheel zooms around the pointer.
+     */
+    @Override
+    public void mouseWheelMoved(MouseWheelEvent e) {
+        renderer.zoom(Math.pow(ZOOM_STEP, -e.getPreciseWheelRotation()), e.getX(), e.getY());
+        refreshGraph();
+    }
+
+    /**
+     * Zooms and pans so every node is in view.
+     */
+    public void fitView() {
+        int w = getWidth() > 0 ? getWidth() : GRAPH_SIZE;
+        int h = getHeight() > 0 ? getHeight() : GRAPH_SIZE;
+        renderer.fit(w, h);
+        refreshGraph();
     }
 
     @Override
@@ -168,22 +389,14 @@ public class Graph extends JPanel implements MouseListener {
     // ============================ Solving Graph =================================
 
     /**
-     * @param n1 - name of first node
-     * @param n2 - name of second node
+     * @param n1 - first node
+     * @param n2 - second node
      * @return - Instance of edge that connects the first and second node.
      *           If no edge found, return null.
      */
     public Edge findEdge(Node n1, Node n2) {
-        String s1 = n1.getName();
-        String s2 = n2.getName();
-        String name1 = s1 + s2;
-        String name2 = s2 + s1;
-
-        if (!nameToEdge.containsKey(name1)) {
-            return nameToEdge.get(name2);
-        }
-
-        return nameToEdge.get(name1);
+        int id = edgeIndex.get(n1.id, n2.id);
+        return id == -1 ? null : edges.get(id);
     }
 
     /**
@@ -194,21 +407,32 @@ public class Graph extends JPanel implements MouseListener {
      *           which will be directly connected to n.
      */
     public ArrayList<MyPair> adjacent(Node n) {
-        ArrayList<MyPair> adj = new ArrayList<>();
-        for(Edge e : edges) {
-            if(e.n1.name.equals(n.name)) {
-                adj.add(new MyPair(e.n2, e));
-            } else if(e.n2.name.equals(n.name)) {
-                adj.add(new MyPair(e.n1, e));
-            }
+        AdjacencyIndex index = adjacency();
+        ArrayList<MyPair> adj = new ArrayList<>(index.degree(n.id));
+        for (int i = index.begin(n.id); i < index.end(n.id); i++) {
+            adj.add(new MyPair(nodes.get(index.target[i]), edges.get(index.edge[i])));
         }
-        for(MyPair p : adj) {
-            System.out.println("Adjacent: " + p.edge.name);
+        if (Trace.DEBUG) {
+            for (MyPair p : adj) {
+                Trace.log("Adjacent: " + p.edge.getName());
+            }
         }
 
         return adj;
     }
 
+    /**
+     * Allocation free alternative to adjacent(). Iterate a node's neighbours with
+     *
+     *     for (int i = index.begin(n.id); i < index.end(n.id); i++)
+     *         nodes.get(index.target[i]), edges.get(index.edge[i])
+     *
+     * @return - CSR index of the current graph, rebuilt first if edges were added
+     */
+    public AdjacencyIndex adjacency() {
+        return data.adjacency();
+    }
+
     public void setMethod(String method) {
         this.method = method;
     }
@@ -220,38 +444,61 @@ public class Graph extends JPanel implements MouseListener {
      * @return - List of edges that represent MST.
      */
     public void animateGraphAlgorithm() {
-        if (edges.isEmpty())
+        // the euclidean MST only needs the nodes
+        if (edges.isEmpty() && !(method.equals("euclidean") && nodes.size() > 1))
             return;
 
         // Have to create new worker for every new animation
         if (this.method.equals("kruskal")) {
             kruskal = new Kruskal(this);
             kruskal.execute();
+        } else if (this.method.equals("filterKruskal")) {
+            kruskal = new Kruskal(this, true);
+            kruskal.execute();
         } else if (this.method.equals("prim")) {
             prim = new Prim(this);
             prim.execute();
+        } else if (this.method.equals("boruvka")) {
+            boruvka = new Boruvka(this);
+            boruvka.execute();
+        } else if (this.method.equals("euclidean")) {
+            euclidean = new Euclidean(this);
+            euclidean.execute();
+        } else if (this.method.equals("forest")) {
+            forest = new SpanningForest(this);
+            forest.execute();
         } else if (this.method.equals("BFS")) {
             BFS = new BreadthFirstSearch(this);
             BFS.execute();
         } else if (this.method.equals("DFS")) {
             DFS = new DepthFirstSearch(this);
             DFS.execute();
+        } else if (this.method.equals("A*")) {
+            shortestPath = new ShortestPath(this, false);
+            shortestPath.execute();
+        } else if (this.method.equals("bidirectional")) {
+            shortestPath = new ShortestPath(this, true);
+            shortestPath.execute();
         }
     }
 
     public void killAllAnimation() {
         kruskal.cancel(true);
         prim.cancel(true);
+        boruvka.cancel(true);
+        euclidean.cancel(true);
+        forest.cancel(true);
         BFS.cancel(true);
         DFS.cancel(true);
+        shortestPath.cancel(true);
     }
 
     public void startAnimation() {
-        this.paused = false;
+        control.resume();
     }
 
     public void stopAnimation() {
-        this.paused = true;
+        control.pause();
     }
 
 }
@@ -0,0 +1,130 @@
+import java.util.Arrays;
+
+/**
+ * Plain array form of a graph that the algorithm engines run on.
+ * Vertices and edges are addressed by dense int ids, and nothing here
+ * touches Swing or AWT, so it can be used in a headless JVM.
+ *
+ * It also holds what the GUI draws (colors, visited flags), so for a
+ * Graph this is the only copy of the data and Node and Edge are views on it.
+ */
+public class GraphData {
+
+    public int vertexCount = 0;
+    public double[] x = new double[16], y = new double[16];
+
+    public int edgeCount = 0;
+    public int[] edgeU = new int[16], edgeV = new int[16];
+    public double[] weight = new double[16];
+
+    // visual state, indices into Graph.PALETTE
+    public static final byte DEFAULT = 0, HIGHLIGHT = 1, FINAL = 2, CURRENT = 3;
+    public byte[] vertexColor = new byte[16];
+    public boolean[] visited = new boolean[16];
+    public byte[] edgeColor = new byte[16];
+
+    public AdjacencyIndex adjIndex = new AdjacencyIndex();
+    public boolean adjacencyDirty = false;
+
+    public GraphData() {
+    }
+
+    public GraphData(int vertexCapacity, int edgeCapacity) {
+        x = new double[Math.max(1, vertexCapacity)];
+        y = new double[Math.max(1, vertexCapacity)];
+        vertexColor = new byte[Math.max(1, vertexCapacity)];
+        visited = new boolean[Math.max(1, vertexCapacity)];
+        edgeU = new int[Math.max(1, edgeCapacity)];
+        edgeV = new int[Math.max(1, edgeCapacity)];
+        weight = new double[Math.max(1, edgeCapacity)];
+        edgeColor = new byte[Math.max(1, edgeCapacity)];
+    }
+
+    /**
+     * @return - id of the new vertex
+     */
+    public int addVertex(double vx, double vy) {
+        if (vertexCount == x.length) {
+            x = Arrays.copyOf(x, 2 * vertexCount);
+            y = Arrays.copyOf(y, 2 * vertexCount);
+            vertexColor = Arrays.copyOf(vertexColor, 2 * vertexCount);
+            visited = Arrays.copyOf(visited, 2 * vertexCount);
+        }
+        x[vertexCount] = vx;
+        y[vertexCount] = vy;
+        vertexColor[vertexCount] = DEFAULT;
+        visited[vertexCount] = false;
+        if (!adjacencyDirty) {
+            adjIndex.addVertex();
+        }
+        return vertexCount++;
+    }
+
+    /**
+     * @return - id of the new edge
+     */
+    public int addEdge(int u, int v, double w) {
+        if (edgeCount == edgeU.length) {
+            edgeU = Arrays.copyOf(edgeU, 2 * edgeCount);
+            edgeV = Arrays.copyOf(edgeV, 2 * edgeCount);
+            weight = Arrays.copyOf(weight, 2 * edgeCount);
+            edgeColor = Arrays.copyOf(edgeColor, 2 * edgeCount);
+        }
+        edgeU[edgeCount] = u;
+        edgeV[edgeCount] = v;
+        weight[edgeCount] = w;
+        edgeColor[edgeCount] = DEFAULT;
+        adjacencyDirty = true;
+        return edgeCount++;
+    }
+
+    /**
+     * Removes edge e by moving the last edge into its slot, so ids stay dense.
+     *
+     * @return - old id of the edge that now has id e, or -1 if e was the last edge
+     */
+    public int removeEdge(int e) {
+        int last = --edgeCount;
+        adjacencyDirty = true;
+        if (e == last) {
+            return -1;
+        }
+        edgeU[e] = edgeU[last];
+        edgeV[e] = edgeV[last];
+        weight[e] = weight[last];
+        edgeColor[e] = edgeColor[last];
+        return last;
+    }
+
+    /**
+     * Same weight the GUI gives an Edge between the two vertices.
+     */
+    public double lengthSquared(int u, int v) {
+        double dx = x[u] - x[v];
+        double dy = y[u] - y[v];
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * @return - endpoint of edge e that is not v
+     */
+    public int other(int e, int v) {
+        return edgeU[e] == v ? edgeV[e] : edgeU[e];
+    }
+
+    /**
+     * Allocation free neighbour iteration. The neighbours of v are
+     *
+     *     for (int i = index.begin(v); i < index.end(v); i++)
+     *         index.target[i] over edge index.edge[i]
+     *
+     * @return - CSR index of the graph, rebuilt first if edges were added
+     */
+    public AdjacencyIndex adjacency() {
+        if (adjacencyDirty) {
+            adjIndex.build(vertexCount, edgeCount, edgeU, edgeV);
+            adjacencyDirty = false;
+        }
+        return adjIndex;
+    }
+}
@@ -0,0 +1,181 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary graph file, read and written through memory mapping.
+ *
+ * Layout, little endian like ChannelEdgeStream:
+ *
+ *     int magic, int version, int vertexCount, int edgeCount
+ *     double x[vertexCount], double y[vertexCount]
+ *     int edgeU[edgeCount], int edgeV[edgeCount]
+ *     (4 bytes padding if edgeCount is odd)
+ *     double weight[edgeCount]
+ *
+ * Opening a file maps it and makes one sequential pass over the endpoints
+ * to check they are vertices, so a corrupt file fails there instead of
+ * deep inside an engine. The arrays are views straight into the page cache
+ * and nothing is allocated per vertex or edge. Each array is mapped on its own, so it
+ * must stay under 2GB (about 268M vertices or edges).
+ */
+public class GraphFile {
+
+    public static final int MAGIC = 0x4754534D; // "MSTG" in the file
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 16;
+
+    public final int vertexCount, edgeCount;
+    public final DoubleBuffer x, y;
+    public final IntBuffer edgeU, edgeV;
+    public final DoubleBuffer weight;
+
+    private GraphFile(int vertexCount, int edgeCount, DoubleBuffer x, DoubleBuffer y,
+                      IntBuffer edgeU, IntBuffer edgeV, DoubleBuffer weight) {
+        this.vertexCount = vertexCount;
+        this.edgeCount = edgeCount;
+        this.x = x;
+        this.y = y;
+        this.edgeU = edgeU;
+        this.edgeV = edgeV;
+        this.weight = weight;
+    }
+
+    /**
+     * @return - size in bytes of a file with these counts
+     */
+    public static long fileSize(int vertexCount, int edgeCount) {
+        return weightOffset(vertexCount, edgeCount) + 8L * edgeCount;
+    }
+
+    private static long weightOffset(int vertexCount, int edgeCount) {
+        long end = HEADER_BYTES + 16L * vertexCount + 8L * edgeCount;
+        return (end + 7) & ~7L;
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long offset, long bytes) throws IOException {
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IOException("graph too large, section of " + bytes + " bytes");
+        }
+        MappedByteBuffer buffer = channel.map(mode, offset, bytes);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    /**
+     * Maps a graph file. The channel is closed again right away,
+     * the mapping stays valid until the buffers are garbage collected.
+     * Throws an IOException if the file is not a graph file, is truncated,
+     * or has an edge endpoint outside 0 .. vertexCount - 1.
+     */
+    public static GraphFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException(path + " is not a graph file, too short");
+            }
+            IntBuffer header = map(channel, FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).asIntBuffer();
+            if (header.get(0) != MAGIC) {
+                throw new IOException(path + " is not a graph file, bad magic number");
+            }
+            if (header.get(1) != VERSION) {
+                throw new IOException(path + " has unsupported version " + header.get(1));
+            }
+            int n = header.get(2), m = header.get(3);
+            if (n < 0 || m < 0 || channel.size() < fileSize(n, m)) {
+                throw new IOException(path + " is truncated or corrupt");
+            }
+
+            long offset = HEADER_BYTES;
+            DoubleBuffer x = map(channel, FileChannel.MapMode.READ_ONLY, offset, 8L * n).asDoubleBuffer();
+            offset += 8L * n;
+            DoubleBuffer y = map(channel, FileChannel.MapMode.READ_ONLY, offset, 8L * n).asDoubleBuffer();
+            offset += 8L * n;
+            IntBuffer u = map(channel, FileChannel.MapMode.READ_ONLY, offset, 4L * m).asIntBuffer();
+            offset += 4L * m;
+            IntBuffer v = map(channel, FileChannel.MapMode.READ_ONLY, offset, 4L * m).asIntBuffer();
+            DoubleBuffer w = map(channel, FileChannel.MapMode.READ_ONLY, weightOffset(n, m), 8L * m).asDoubleBuffer();
+            checkEndpoints(path, u, n, m);
+            checkEndpoints(path, v, n, m);
+            return new GraphFile(n, m, x, y, u, v, w);
+        }
+    }
+
+    private static void checkEndpoints(Path path, IntBuffer ends, int n, int m) throws IOException {
+        for (int e = 0; e < m; e++) {
+            int end = ends.get(e);
+            if (end < 0 || end >= n) {
+                throw new IOException(path + " is corrupt, edge " + e + " has endpoint " + end
+                        + " but there are " + n + " vertices");
+            }
+        }
+    }
+
+    /**
+     * Writes g to path, replacing the file if it exists.
+     */
+    public static void write(GraphData g, Path path) throws IOException {
+        int n = g.vertexCount, m = g.edgeCount;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer header = map(channel, FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(m);
+
+            long offset = HEADER_BYTES;
+            map(channel, FileChannel.MapMode.READ_WRITE, offset, 8L * n).asDoubleBuffer().put(g.x, 0, n);
+            offset += 8L * n;
+            map(channel, FileChannel.MapMode.READ_WRITE, offset, 8L * n).asDoubleBuffer().put(g.y, 0, n);
+            offset += 8L * n;
+            map(channel, FileChannel.MapMode.READ_WRITE, offset, 4L * m).asIntBuffer().put(g.edgeU, 0, m);
+            offset += 4L * m;
+            map(channel, FileChannel.MapMode.READ_WRITE, offset, 4L * m).asIntBuffer().put(g.edgeV, 0, m);
+            map(channel, FileChannel.MapMode.READ_WRITE, weightOffset(n, m), 8L * m).asDoubleBuffer().put(g.weight, 0, m);
+        }
+    }
+
+    /**
+     * Copies the file into arrays the engines can run on. Each array is one
+     * bulk copy out of the mapping, there is no per record parsing.
+     */
+    public GraphData toGraphData() {
+        GraphData g = new GraphData(vertexCount, edgeCount);
+        x.get(0, g.x, 0, vertexCount);
+        y.get(0, g.y, 0, vertexCount);
+        edgeU.get(0, g.edgeU, 0, edgeCount);
+        edgeV.get(0, g.edgeV, 0, edgeCount);
+        weight.get(0, g.weight, 0, edgeCount);
+        g.vertexCount = vertexCount;
+        g.edgeCount = edgeCount;
+        g.adjacencyDirty = true;
+        return g;
+    }
+
+    /**
+     * @return - stream over the edges that reads the mapping directly, for StreamingMst
+     */
+    public EdgeStream edges() {
+        return new EdgeStream() {
+            int e = -1;
+
+            public boolean next() {
+                return ++e < edgeCount;
+            }
+
+            public int u() {
+                return edgeU.get(e);
+            }
+
+            public int v() {
+                return edgeV.get(e);
+            }
+
+            public double weight() {
+                return weight.get(e);
+            }
+        };
+    }
+}
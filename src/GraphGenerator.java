@@ -0,0 +1,153 @@
+import java.util.SplittableRandom;
+
+/**
+ * Seeded random graphs for benchmarks and batch runs.
+ * The same arguments always give the same graph. Vertices get positions,
+ * and unless stated otherwise an edge's weight is its squared length like Edge.
+ */
+public class GraphGenerator {
+
+    public static final String[] KINDS = {"uniform", "grid", "knn", "complete", "powerlaw"};
+
+    private static final double SIZE = 1_000_000; // coordinates are in [0, SIZE)
+
+    /**
+     * @param kind - one of KINDS
+     * @param edges - roughly how many edges the graph should have
+     */
+    public static GraphData generate(String kind, int edges, long seed) {
+        switch (kind) {
+            case "uniform":
+                return uniform(Math.max(2, edges / 4), edges, seed);
+            case "grid":
+                int side = Math.max(2, (int) Math.sqrt(edges / 2.0));
+                return grid(side, side, seed);
+            case "knn":
+                return geometricKnn(Math.max(7, (int) (edges / 3.5)), 6, seed);
+            case "complete":
+                return complete(Math.max(2, (int) ((1 + Math.sqrt(1 + 8.0 * edges)) / 2)), seed);
+            case "powerlaw":
+                return powerLaw(Math.max(5, edges / 4), 4, seed);
+            default:
+                throw new IllegalArgumentException("unknown graph kind " + kind);
+        }
+    }
+
+    private static GraphData randomPoints(int n, SplittableRandom random, int edgeCapacity) {
+        GraphData g = new GraphData(n, edgeCapacity);
+        for (int v = 0; v < n; v++) {
+            g.addVertex(random.nextDouble() * SIZE, random.nextDouble() * SIZE);
+        }
+        return g;
+    }
+
+    /**
+     * m edges between vertices picked uniformly at random (no self loops or
+     * parallel edges, so m is capped at n(n-1)/2).
+     */
+    public static GraphData uniform(int n, int m, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        m = (int) Math.min(m, (long) n * (n - 1) / 2);
+        GraphData g = randomPoints(n, random, m);
+        EdgeHash seen = new EdgeHash(m);
+        while (g.edgeCount < m) {
+            int u = random.nextInt(n), v = random.nextInt(n);
+            if (u != v && seen.add(u, v, g.edgeCount)) {
+                g.addEdge(u, v, g.lengthSquared(u, v));
+            }
+        }
+        return g;
+    }
+
+    /**
+     * rows x cols lattice with 4-neighbour edges. Points are nudged off the
+     * lattice a little so the weights aren't all equal.
+     */
+    public static GraphData grid(int rows, int cols, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double step = SIZE / Math.max(rows, cols);
+        GraphData g = new GraphData(rows * cols, 2 * rows * cols);
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                g.addVertex((c + random.nextDouble(0.3)) * step, (r + random.nextDouble(0.3)) * step);
+            }
+        }
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                int v = r * cols + c;
+                if (c + 1 < cols) g.addEdge(v, v + 1, g.lengthSquared(v, v + 1));
+                if (r + 1 < rows) g.addEdge(v, v + cols, g.lengthSquared(v, v + cols));
+            }
+        }
+        return g;
+    }
+
+    /**
+     * Random points, each connected to its k nearest neighbours.
+     */
+    public static GraphData geometricKnn(int n, int k, long seed) {
+        return KnnGraph.build(randomPoints(n, new SplittableRandom(seed), 0), k);
+    }
+
+    /**
+     * Random points with an edge between every pair.
+     */
+    public static GraphData complete(int n, long seed) {
+        GraphData g = randomPoints(n, new SplittableRandom(seed), n * (n - 1) / 2);
+        for (int u = 0; u < n; u++) {
+            for (int v = u + 1; v < n; v++) {
+                g.addEdge(u, v, g.lengthSquared(u, v));
+            }
+        }
+        return g;
+    }
+
+    /**
+     * Barabasi-Albert preferential attachment: every new vertex connects to
+     * attach existing vertices picked in proportion to their degree, which
+     * gives a power law degree distribution with a few big hubs.
+     * Weights are random since the positions mean nothing here.
+     */
+    public static GraphData powerLaw(int n, int attach, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        GraphData g = randomPoints(n, random, n * attach);
+        // every edge adds both endpoints, so picking a uniform slot is picking by degree
+        int[] endpoints = new int[2 * n * attach + attach * attach];
+        int slots = 0;
+        int[] picked = new int[attach];
+
+        // start from a small clique
+        int core = Math.min(n, attach + 1);
+        for (int u = 0; u < core; u++) {
+            for (int v = u + 1; v < core; v++) {
+                g.addEdge(u, v, random.nextDouble());
+                endpoints[slots++] = u;
+                endpoints[slots++] = v;
+            }
+        }
+        for (int v = core; v < n; v++) {
+            int count = 0;
+            for (int tries = 0; count < attach && tries < 4 * attach; tries++) {
+                int u = endpoints[random.nextInt(slots)];
+                if (!contains(picked, count, u)) {
+                    picked[count++] = u;
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                g.addEdge(picked[i], v, random.nextDouble());
+                endpoints[slots++] = picked[i];
+                endpoints[slots++] = v;
+            }
+        }
+        return g;
+    }
+
+    private static boolean contains(int[] a, int count, int x) {
+        for (int i = 0; i < count; i++) {
+            if (a[i] == x) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,969 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Draws a whole Graph onto one back buffer image, which the Graph panel
+ * copies to the screen.
+ *
+ * The view shows the world (the coordinates in GraphData) scaled by scale,
+ * with world point (viewX, viewY) in the top left corner. Only nodes and
+ * edges inside the view are drawn: nodes are found through the graph's
+ * spatial index and edges through a loose grid over the world, where each
+ * edge sits in the cell of the top left corner of its bounding box.
+ *
+ * The image is only redrawn in full when the graph or the view changes. The
+ * canvas is cut into TILE x TILE tiles and every full redraw also records
+ * which visible nodes and edges touch each tile. Recoloring a node or edge
+ * marks the tiles under it dirty, and the next paint redraws just those tiles
+ * from their lists, so an animation step costs about the same on a graph
+ * of a million edges as on ten.
+ *
+ * When more is visible than can be drawn in a frame, the view switches to a
+ * heatmap of node density instead, and only nodes and edges that are not
+ * the default color are drawn on top of it, so animations still show. The
+ * density comes from a pyramid of node counts built once per graph change
+ * and the colored elements from lists kept up as they are recolored, so a
+ * heatmap frame costs about the same whatever the size of the graph.
+ *
+ * Elements are drawn one color at a time so the Graphics state changes
+ * once per color, not once per element. Nodes and 1px edges, which are
+ * most of what a big graph draws, are written straight into the image's
+ * pixel array, which is several times faster than fillOval and drawLine.
+ */
+public class GraphRenderer {
+
+    // above this many visible edges they are drawn 1px wide, wide strokes get slow at that size
+    public static final int THIN_EDGES_ABOVE = 2_000;
+    // above this many visible nodes they are drawn as small dots without their names
+    public static final int LABELS_UP_TO = 2_000;
+    // above this many visible edges and nodes together the heatmap is drawn instead,
+    // about what can be drawn within a 16ms frame
+    public static final int DETAIL_UP_TO = 20_000;
+
+    public static final int TILE = 64;
+    public static final int HEAT_CELL = 4;
+    public static final double MIN_SCALE = 1e-6, MAX_SCALE = 1e3;
+
+    // edges covering more tiles than this are kept in one list that every tile redraw checks
+    private static final int LONG_EDGE_TILES = 32;
+    // edge grid: about this many edges per cell, and edges longer than this many cells go in a list
+    private static final int EDGES_PER_CELL = 8;
+    private static final int LONG_EDGE_CELLS = 4;
+    // finest density level: about one cell per node along each side, at most this many
+    private static final int DENSITY_CELLS_MAX = 4096;
+    private static final int WIDE_EDGE = 10;
+    private static final int DOT_SIZE = 6;
+    private static final int LABEL_W = 2 * Node.NODE_SIZE, LABEL_H = 4; // room for the name right of a node
+
+    public final Graph graph;
+    public BufferedImage buffer;
+    private int[] pixels; // buffer's pixel array
+    private int clipX0, clipY0, clipX1, clipY1; // area being redrawn, max exclusive
+    private final double[] segment = new double[4]; // x0, y0, x1, y1 left by clipSegment
+    private double clipT0, clipT1;                  // part of the segment clipSegment has kept so far
+
+    // which pixels of a size x size square a filled circle covers
+    private final boolean[] nodeMask = circleMask(Node.NODE_SIZE), dotMask = circleMask(DOT_SIZE);
+
+    // view: screen = (world - view) * scale
+    public double scale = 1, viewX = 0, viewY = 0;
+
+    private boolean fullRedraw = true;
+    private boolean structureChanged = true;
+
+    // world space edge grid: cell c holds gridEdges[gridStart[c] .. gridStart[c+1]-1]
+    private double gridMinX, gridMinY, gridCell = 1, gridReach;
+    private int gridCols, gridRows;
+    private int[] gridStart = {0, 0}, gridEdges = new int[0];
+    private int[] gridLongEdges = new int[0];
+
+    // how the last full redraw drew, marks must use the same sizes
+    private boolean heatmap = false;
+    private int edgeWidth = WIDE_EDGE, nodeSize = Node.NODE_SIZE;
+    private boolean labels = true;
+
+    // visible elements found by the last full redraw
+    private int[] visibleEdges = new int[16], visibleVertices = new int[16];
+    private int visibleEdgeCount, visibleVertexCount;
+
+    // detail mode: dirty tiles and CSR lists of the visible nodes and edges touching each tile
+    private int tilesX, tilesY;
+    private boolean[] dirty = new boolean[0];
+    private int dirtyCount = 0;
+    private int dirtyX0, dirtyY0, dirtyX1, dirtyY1; // tile bounds of the dirty tiles
+    private int[] edgeStart, edgeList, vertexStart, vertexList;
+    private int[] longEdges;
+    private int longEdgeCount;
+
+    // heatmap mode: density image without the colored elements
+    private BufferedImage heatBase;
+    private boolean overlayDirty = false;
+
+    // node counts per cell of a world grid from (gridMinX, gridMinY), level l has cells 2^l
+    // times as wide as level 0's and the top level is one cell. Built when first needed
+    private int[][] density = new int[0][];
+    private int[] densityCols = new int[0], densityRows = new int[0];
+    private double densityCell = 1;
+    private boolean densityStale = true;
+
+    // elements not in the default color, added by markVertex / markEdge and dropped once
+    // the overlay finds them back in the default color. Rescanned after bulk changes
+    private int[] coloredEdges = new int[16], coloredVertices = new int[16];
+    private int coloredEdgeCount, coloredVertexCount;
+    private final BitSet coloredEdgeSet = new BitSet(), coloredVertexSet = new BitSet();
+    private boolean coloredStale = true;
+
+    // counters to see how much work the renderer does
+    public long fullRedraws = 0;
+    public long tileRedraws = 0;
+    public long overlayRedraws = 0;
+
+    public GraphRenderer(Graph graph) {
+        this.graph = graph;
+    }
+
+    // ============================ View =================================
+
+    public double worldX(double screenX) {
+        return viewX + screenX / scale;
+    }
+
+    public double worldY(double screenY) {
+        return viewY + screenY / scale;
+    }
+
+    public double screenX(double worldX) {
+        return (worldX - viewX) * scale;
+    }
+
+    public double screenY(double worldY) {
+        return (worldY - viewY) * scale;
+    }
+
+    /**
+     * Zooms by factor, keeping the world point under (screenX, screenY) in place.
+     */
+    public synchronized void zoom(double factor, double screenX, double screenY) {
+        double wx = worldX(screenX), wy = worldY(screenY);
+        scale = Math.max(MIN_SCALE, Math.min(MAX_SCALE, scale * factor));
+        viewX = wx - screenX / scale;
+        viewY = wy - screenY / scale;
+        fullRedraw = true;
+    }
+
+    /**
+     * Moves the view by a distance in screen pixels.
+     */
+    public synchronized void pan(double dx, double dy) {
+        viewX -= dx / scale;
+        viewY -= dy / scale;
+        fullRedraw = true;
+    }
+
+    /**
+     * Fits every node into a width x height screen, or resets the view if there are none.
+     */
+    public synchronized void fit(int width, int height) {
+        GraphData d = graph.data;
+        if (d.vertexCount == 0 || width <= 0 || height <= 0) {
+            scale = 1;
+            viewX = viewY = 0;
+        } else {
+            double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+            for (int v = 0; v < d.vertexCount; v++) {
+                minX = Math.min(minX, d.x[v]);
+                minY = Math.min(minY, d.y[v]);
+                maxX = Math.max(maxX, d.x[v]);
+                maxY = Math.max(maxY, d.y[v]);
+            }
+            // leave a node's width of border all around
+            int border = Node.NODE_SIZE;
+            double sx = (width - 2 * border) / Math.max(1e-9, maxX - minX);
+            double sy = (height - 2 * border) / Math.max(1e-9, maxY - minY);
+            scale = Math.max(MIN_SCALE, Math.min(MAX_SCALE, Math.min(sx, sy)));
+            viewX = minX - border / scale;
+            viewY = minY - border / scale;
+        }
+        fullRedraw = true;
+    }
+
+    // ============================ Invalidation =================================
+
+    /**
+     * Everything must be redrawn, e.g. after colors were reset.
+     */
+    public synchronized void invalidateAll() {
+        fullRedraw = true;
+        coloredStale = true;
+    }
+
+    /**
+     * Nodes or edges were added, moved or removed.
+     */
+    public synchronized void structureChanged() {
+        structureChanged = true;
+        fullRedraw = true;
+        densityStale = true;
+        coloredStale = true;
+    }
+
+    public synchronized void markVertex(int v) {
+        if (!coloredStale && graph.data.vertexColor[v] != GraphData.DEFAULT && !coloredVertexSet.get(v)) {
+            coloredVertexSet.set(v);
+            if (coloredVertexCount == coloredVertices.length) {
+                coloredVertices = Arrays.copyOf(coloredVertices, 2 * coloredVertexCount);
+            }
+            coloredVertices[coloredVertexCount++] = v;
+        }
+        if (heatmap) {
+            overlayDirty = true;
+            return;
+        }
+        GraphData d = graph.data;
+        double x = screenX(d.x[v]), y = screenY(d.y[v]);
+        int r = nodeSize / 2;
+        int w = labels ? LABEL_W : 0, h = labels ? LABEL_H : 0;
+        markArea(x - r, y - r, x + r + w, y + r + h);
+    }
+
+    public synchronized void markEdge(int e) {
+        if (!coloredStale && graph.data.edgeColor[e] != GraphData.DEFAULT && !coloredEdgeSet.get(e)) {
+            coloredEdgeSet.set(e);
+            if (coloredEdgeCount == coloredEdges.length) {
+                coloredEdges = Arrays.copyOf(coloredEdges, 2 * coloredEdgeCount);
+            }
+            coloredEdges[coloredEdgeCount++] = e;
+        }
+        if (heatmap) {
+            overlayDirty = true;
+            return;
+        }
+        GraphData d = graph.data;
+        int u = d.edgeU[e], v = d.edgeV[e];
+        double ux = screenX(d.x[u]), uy = screenY(d.y[u]), vx = screenX(d.x[v]), vy = screenY(d.y[v]);
+        double pad = edgeWidth / 2.0 + 1;
+        markArea(Math.min(ux, vx) - pad, Math.min(uy, vy) - pad, Math.max(ux, vx) + pad, Math.max(uy, vy) + pad);
+    }
+
+    private void markArea(double x0, double y0, double x1, double y1) {
+        if (fullRedraw || buffer == null) {
+            return; // everything gets redrawn anyway
+        }
+        if (x1 < 0 || y1 < 0 || x0 >= buffer.getWidth() || y0 >= buffer.getHeight()) {
+            return;
+        }
+        int tx0 = Math.max(0, tileX(x0)), tx1 = tileX(x1), ty0 = Math.max(0, tileY(y0)), ty1 = tileY(y1);
+        for (int ty = ty0; ty <= ty1; ty++) {
+            for (int tx = tx0; tx <= tx1; tx++) {
+                int t = ty * tilesX + tx;
+                if (!dirty[t]) {
+                    dirty[t] = true;
+                    dirtyCount++;
+                }
+            }
+        }
+        dirtyX0 = Math.min(dirtyX0, tx0);
+        dirtyY0 = Math.min(dirtyY0, ty0);
+        dirtyX1 = Math.max(dirtyX1, tx1);
+        dirtyY1 = Math.max(dirtyY1, ty1);
+    }
+
+    // tile of a screen coordinate, clamped to the last tile (callers clamp at 0)
+    private int tileX(double x) {
+        return (int) Math.min(tilesX - 1, Math.floor(x / TILE));
+    }
+
+    private int tileY(double y) {
+        return (int) Math.min(tilesY - 1, Math.floor(y / TILE));
+    }
+
+    /**
+     * @return - area of the screen that the next paint changes, null if all of it
+     */
+    public synchronized Rectangle pendingArea() {
+        if (fullRedraw || buffer == null || (heatmap && overlayDirty)) {
+            return null;
+        }
+        if (dirtyCount == 0) {
+            return new Rectangle();
+        }
+        return new Rectangle(dirtyX0 * TILE, dirtyY0 * TILE,
+                (dirtyX1 - dirtyX0 + 1) * TILE, (dirtyY1 - dirtyY0 + 1) * TILE);
+    }
+
+    // ============================ Painting =================================
+
+    /**
+     * Brings the back buffer up to date and copies it onto g.
+     */
+    public void paint(Graphics g, int width, int height, Color background) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        synchronized (this) {
+            if (buffer == null || buffer.getWidth() != width || buffer.getHeight() != height) {
+                buffer = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+                pixels = ((DataBufferInt) buffer.getRaster().getDataBuffer()).getData();
+                tilesX = (width + TILE - 1) / TILE;
+                tilesY = (height + TILE - 1) / TILE;
+                dirty = new boolean[tilesX * tilesY];
+                fullRedraw = true;
+            }
+            if (fullRedraw) {
+                findVisible();
+                if (heatmap) {
+                    drawHeatBase(background);
+                    drawOverlay();
+                } else {
+                    buildTileLists();
+                    redrawAll(background);
+                }
+                fullRedraw = false;
+                overlayDirty = false;
+                fullRedraws++;
+            } else if (heatmap && overlayDirty) {
+                drawOverlay();
+                overlayDirty = false;
+                overlayRedraws++;
+            } else if (!heatmap && dirtyCount > 0) {
+                redrawDirtyTiles(background);
+            }
+            Arrays.fill(dirty, false);
+            dirtyCount = 0;
+            dirtyX0 = dirtyY0 = Integer.MAX_VALUE;
+            dirtyX1 = dirtyY1 = -1;
+        }
+        g.drawImage(buffer, 0, 0, null);
+    }
+
+    /**
+     * Culls to the nodes and edges in view and picks how to draw them.
+     */
+    private void findVisible() {
+        GraphData d = graph.data;
+        if (structureChanged) {
+            buildEdgeGrid();
+            structureChanged = false;
+        }
+        // largest thing drawn around a point, in world units
+        double margin = (Node.NODE_SIZE + LABEL_W + WIDE_EDGE) / scale;
+        double x0 = viewX - margin, y0 = viewY - margin;
+        double x1 = worldX(buffer.getWidth()) + margin, y1 = worldY(buffer.getHeight()) + margin;
+
+        visibleEdgeCount = 0;
+        visibleVertexCount = 0;
+        int cx0 = gridCol(x0 - gridReach), cx1 = gridCol(x1), cy0 = gridRow(y0 - gridReach), cy1 = gridRow(y1);
+
+        // the grid cell counts bound the visible edges, so a zoomed out view never lists them
+        long estimate = gridLongEdges.length;
+        for (int cy = cy0; cy <= cy1; cy++) {
+            estimate += gridStart[cy * gridCols + cx1 + 1] - gridStart[cy * gridCols + cx0];
+        }
+        heatmap = estimate > DETAIL_UP_TO;
+
+        if (!heatmap) {
+            for (int cy = cy0; cy <= cy1; cy++) {
+                for (int i = gridStart[cy * gridCols + cx0]; i < gridStart[cy * gridCols + cx1 + 1]; i++) {
+                    addIfVisible(d, gridEdges[i], x0, y0, x1, y1);
+                }
+            }
+            for (int e : gridLongEdges) {
+                addIfVisible(d, e, x0, y0, x1, y1);
+            }
+            graph.spatialIndex.forEachInRange(x0, y0, x1, y1, v -> {
+                if (visibleVertexCount == visibleVertices.length) {
+                    visibleVertices = Arrays.copyOf(visibleVertices, 2 * visibleVertexCount);
+                }
+                visibleVertices[visibleVertexCount++] = v;
+            });
+            heatmap = visibleEdgeCount + visibleVertexCount > DETAIL_UP_TO;
+        }
+
+        labels = !heatmap && visibleVertexCount <= LABELS_UP_TO;
+        nodeSize = labels ? Node.NODE_SIZE : DOT_SIZE;
+        edgeWidth = heatmap || visibleEdgeCount > THIN_EDGES_ABOVE ? 1 : WIDE_EDGE;
+    }
+
+    private void addIfVisible(GraphData d, int e, double x0, double y0, double x1, double y1) {
+        int u = d.edgeU[e], v = d.edgeV[e];
+        if (Math.max(d.x[u], d.x[v]) < x0 || Math.min(d.x[u], d.x[v]) > x1
+                || Math.max(d.y[u], d.y[v]) < y0 || Math.min(d.y[u], d.y[v]) > y1) {
+            return;
+        }
+        if (visibleEdgeCount == visibleEdges.length) {
+            visibleEdges = Arrays.copyOf(visibleEdges, 2 * visibleEdgeCount);
+        }
+        visibleEdges[visibleEdgeCount++] = e;
+    }
+
+    private int gridCol(double x) {
+        return (int) Math.max(0, Math.min(gridCols - 1, Math.floor((x - gridMinX) / gridCell)));
+    }
+
+    private int gridRow(double y) {
+        return (int) Math.max(0, Math.min(gridRows - 1, Math.floor((y - gridMinY) / gridCell)));
+    }
+
+    /**
+     * Counting sort of the edges by the cell of their top left corner.
+     * Edges spanning more than LONG_EDGE_CELLS cells go in gridLongEdges, so
+     * every other edge reaches at most gridReach right of and below its cell.
+     */
+    private void buildEdgeGrid() {
+        GraphData d = graph.data;
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int v = 0; v < d.vertexCount; v++) {
+            minX = Math.min(minX, d.x[v]);
+            minY = Math.min(minY, d.y[v]);
+            maxX = Math.max(maxX, d.x[v]);
+            maxY = Math.max(maxY, d.y[v]);
+        }
+        if (d.vertexCount == 0) {
+            minX = minY = maxX = maxY = 0;
+        }
+        double w = Math.max(1e-9, maxX - minX), h = Math.max(1e-9, maxY - minY);
+        int cells = Math.max(1, d.edgeCount / EDGES_PER_CELL);
+        gridCell = Math.max(Math.sqrt(w * h / cells), Math.max(w, h) / 4096);
+        gridMinX = minX;
+        gridMinY = minY;
+        gridCols = (int) (w / gridCell) + 1;
+        gridRows = (int) (h / gridCell) + 1;
+        double longest = LONG_EDGE_CELLS * gridCell;
+
+        int[] cellOf = new int[d.edgeCount];
+        int[] start = new int[gridCols * gridRows + 1];
+        int longCount = 0;
+        for (int e = 0; e < d.edgeCount; e++) {
+            int u = d.edgeU[e], v = d.edgeV[e];
+            if (Math.abs(d.x[u] - d.x[v]) > longest || Math.abs(d.y[u] - d.y[v]) > longest) {
+                cellOf[e] = -1;
+                longCount++;
+                continue;
+            }
+            int c = gridRow(Math.min(d.y[u], d.y[v])) * gridCols + gridCol(Math.min(d.x[u], d.x[v]));
+            cellOf[e] = c;
+            start[c + 1]++;
+        }
+        for (int c = 0; c + 1 < start.length; c++) {
+            start[c + 1] += start[c];
+        }
+        int[] fill = Arrays.copyOf(start, start.length - 1);
+        int[] list = new int[d.edgeCount - longCount];
+        int[] longList = new int[longCount];
+        longCount = 0;
+        for (int e = 0; e < d.edgeCount; e++) {
+            if (cellOf[e] == -1) {
+                longList[longCount++] = e;
+            } else {
+                list[fill[cellOf[e]]++] = e;
+            }
+        }
+        gridStart = start;
+        gridEdges = list;
+        gridLongEdges = longList;
+        gridReach = longest + gridCell;
+    }
+
+    /**
+     * Counting sort of the visible elements into the tiles their bounding boxes touch.
+     */
+    private void buildTileLists() {
+        GraphData d = graph.data;
+        int tiles = tilesX * tilesY;
+        double pad = edgeWidth / 2.0 + 1;
+        int r = nodeSize / 2;
+        int w = labels ? LABEL_W : 0, h = labels ? LABEL_H : 0;
+        int width = buffer.getWidth(), height = buffer.getHeight();
+
+        edgeStart = new int[tiles + 1];
+        longEdges = new int[16];
+        longEdgeCount = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            int[] fill = pass == 0 ? null : Arrays.copyOf(edgeStart, tiles);
+            for (int i = 0; i < visibleEdgeCount; i++) {
+                int e = visibleEdges[i];
+                int u = d.edgeU[e], v = d.edgeV[e];
+                double ux = screenX(d.x[u]), uy = screenY(d.y[u]), vx = screenX(d.x[v]), vy = screenY(d.y[v]);
+                double x0 = Math.min(ux, vx) - pad, x1 = Math.max(ux, vx) + pad;
+                double y0 = Math.min(uy, vy) - pad, y1 = Math.max(uy, vy) + pad;
+                if (x1 < 0 || y1 < 0 || x0 >= width || y0 >= height) {
+                    continue;
+                }
+                int tx0 = Math.max(0, tileX(x0)), tx1 = tileX(x1);
+                int ty0 = Math.max(0, tileY(y0)), ty1 = tileY(y1);
+                if ((tx1 - tx0 + 1) * (ty1 - ty0 + 1) > LONG_EDGE_TILES) {
+                    if (pass == 0) {
+                        if (longEdgeCount == longEdges.length) {
+                            longEdges = Arrays.copyOf(longEdges, 2 * longEdgeCount);
+                        }
+                        longEdges[longEdgeCount++] = e;
+                    }
+                    continue;
+                }
+                for (int ty = ty0; ty <= ty1; ty++) {
+                    for (int tx = tx0; tx <= tx1; tx++) {
+                        int t = ty * tilesX + tx;
+                        if (pass == 0) {
+                            edgeStart[t + 1]++;
+                        } else {
+                            edgeList[fill[t]++] = e;
+                        }
+                    }
+                }
+            }
+            if (pass == 0) {
+                for (int t = 0; t < tiles; t++) {
+                    edgeStart[t + 1] += edgeStart[t];
+                }
+                edgeList = new int[edgeStart[tiles]];
+            }
+        }
+
+        vertexStart = new int[tiles + 1];
+        for (int pass = 0; pass < 2; pass++) {
+            int[] fill = pass == 0 ? null : Arrays.copyOf(vertexStart, tiles);
+            for (int i = 0; i < visibleVertexCount; i++) {
+                int v = visibleVertices[i];
+                double x = screenX(d.x[v]), y = screenY(d.y[v]);
+                double x0 = x - r, x1 = x + r + w, y0 = y - r, y1 = y + r + h;
+                if (x1 < 0 || y1 < 0 || x0 >= width || y0 >= height) {
+                    continue;
+                }
+                int tx0 = Math.max(0, tileX(x0)), tx1 = tileX(x1);
+                int ty0 = Math.max(0, tileY(y0)), ty1 = tileY(y1);
+                for (int ty = ty0; ty <= ty1; ty++) {
+                    for (int tx = tx0; tx <= tx1; tx++) {
+                        int t = ty * tilesX + tx;
+                        if (pass == 0) {
+                            vertexStart[t + 1]++;
+                        } else {
+                            vertexList[fill[t]++] = v;
+                        }
+                    }
+                }
+            }
+            if (pass == 0) {
+                for (int t = 0; t < tiles; t++) {
+                    vertexStart[t + 1] += vertexStart[t];
+                }
+                vertexList = new int[vertexStart[tiles]];
+            }
+        }
+    }
+
+    private void redrawAll(Color background) {
+        GraphData d = graph.data;
+        Graphics2D g = buffer.createGraphics();
+        setClip(g, 0, 0, buffer.getWidth(), buffer.getHeight());
+        try {
+            g.setColor(background);
+            g.fillRect(0, 0, buffer.getWidth(), buffer.getHeight());
+            g.setStroke(new BasicStroke(edgeWidth));
+            for (byte c = 0; c < Graph.PALETTE.length; c++) {
+                g.setColor(Graph.PALETTE[c]);
+                for (int i = 0; i < visibleEdgeCount; i++) {
+                    if (d.edgeColor[visibleEdges[i]] == c) {
+                        drawEdge(g, d, visibleEdges[i]);
+                    }
+                }
+            }
+            for (byte c = 0; c < Graph.PALETTE.length; c++) {
+                g.setColor(Graph.PALETTE[c]);
+                for (int i = 0; i < visibleVertexCount; i++) {
+                    if (d.vertexColor[visibleVertices[i]] == c) {
+                        drawVertex(g, d, visibleVertices[i]);
+                    }
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+    }
+
+    private void redrawDirtyTiles(Color background) {
+        GraphData d = graph.data;
+        Graphics2D g = buffer.createGraphics();
+        try {
+            g.setStroke(new BasicStroke(edgeWidth));
+            for (int ty = dirtyY0; ty <= dirtyY1; ty++) {
+                for (int tx = dirtyX0; tx <= dirtyX1; tx++) {
+                    int t = ty * tilesX + tx;
+                    if (!dirty[t]) {
+                        continue;
+                    }
+                    setClip(g, tx * TILE, ty * TILE, TILE, TILE);
+                    g.setColor(background);
+                    g.fillRect(tx * TILE, ty * TILE, TILE, TILE);
+                    for (byte c = 0; c < Graph.PALETTE.length; c++) {
+                        g.setColor(Graph.PALETTE[c]);
+                        for (int i = 0; i < longEdgeCount; i++) {
+                            if (d.edgeColor[longEdges[i]] == c) {
+                                drawEdge(g, d, longEdges[i]);
+                            }
+                        }
+                        for (int i = edgeStart[t]; i < edgeStart[t + 1]; i++) {
+                            if (d.edgeColor[edgeList[i]] == c) {
+                                drawEdge(g, d, edgeList[i]);
+                            }
+                        }
+                    }
+                    for (byte c = 0; c < Graph.PALETTE.length; c++) {
+                        g.setColor(Graph.PALETTE[c]);
+                        for (int i = vertexStart[t]; i < vertexStart[t + 1]; i++) {
+                            if (d.vertexColor[vertexList[i]] == c) {
+                                drawVertex(g, d, vertexList[i]);
+                            }
+                        }
+                    }
+                    tileRedraws++;
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+    }
+
+    /**
+     * Node counts of the finest level by a counting pass over the nodes,
+     * then each level above sums 2 x 2 cells of the one below.
+     */
+    private void buildDensity() {
+        GraphData d = graph.data;
+        // the edge grid spans the bounding box of the nodes
+        double w = gridCols * gridCell, h = gridRows * gridCell;
+        int side = (int) Math.max(1, Math.min(DENSITY_CELLS_MAX, Math.ceil(Math.sqrt(d.vertexCount))));
+        densityCell = Math.max(w, h) / side;
+        int cols = (int) Math.max(1, Math.min(side, Math.ceil(w / densityCell)));
+        int rows = (int) Math.max(1, Math.min(side, Math.ceil(h / densityCell)));
+
+        int levels = 1;
+        for (int c = cols, r = rows; c > 1 || r > 1; c = (c + 1) / 2, r = (r + 1) / 2) {
+            levels++;
+        }
+        density = new int[levels][];
+        densityCols = new int[levels];
+        densityRows = new int[levels];
+
+        int[] count = new int[cols * rows];
+        for (int v = 0; v < d.vertexCount; v++) {
+            int cx = (int) Math.max(0, Math.min(cols - 1, Math.floor((d.x[v] - gridMinX) / densityCell)));
+            int cy = (int) Math.max(0, Math.min(rows - 1, Math.floor((d.y[v] - gridMinY) / densityCell)));
+            count[cy * cols + cx]++;
+        }
+        density[0] = count;
+        densityCols[0] = cols;
+        densityRows[0] = rows;
+        for (int l = 1; l < levels; l++) {
+            int[] below = density[l - 1];
+            int bc = densityCols[l - 1], br = densityRows[l - 1];
+            int lc = (bc + 1) / 2, lr = (br + 1) / 2;
+            int[] level = new int[lc * lr];
+            for (int y = 0; y < br; y++) {
+                for (int x = 0; x < bc; x++) {
+                    level[(y / 2) * lc + x / 2] += below[y * bc + x];
+                }
+            }
+            density[l] = level;
+            densityCols[l] = lc;
+            densityRows[l] = lr;
+        }
+        densityStale = false;
+    }
+
+    /**
+     * Shades each HEAT_CELL square of the screen by log density, darker
+     * where there are more nodes. Every square reads the count of the cell
+     * under its center on the finest pyramid level whose cells are at least
+     * a square wide, so no node falls between squares and the cost only
+     * depends on the size of the screen.
+     */
+    private void drawHeatBase(Color background) {
+        if (densityStale) {
+            buildDensity();
+        }
+        int width = buffer.getWidth(), height = buffer.getHeight();
+        int cols = (width + HEAT_CELL - 1) / HEAT_CELL, rows = (height + HEAT_CELL - 1) / HEAT_CELL;
+        double square = HEAT_CELL / scale; // world size of a square
+        int l = 0;
+        while (l + 1 < density.length && densityCell * (1L << l) < square) {
+            l++;
+        }
+        int[] cells = density[l];
+        int lc = densityCols[l], lr = densityRows[l];
+        double cell = densityCell * (1L << l);
+
+        // level column under each column of squares, -1 outside the grid
+        int[] column = new int[cols];
+        for (int cx = 0; cx < cols; cx++) {
+            double c = Math.floor((viewX + (cx + 0.5) * square - gridMinX) / cell);
+            column[cx] = c >= 0 && c < lc ? (int) c : -1;
+        }
+        int[] count = new int[cols * rows];
+        int max = 0;
+        for (int cy = 0; cy < rows; cy++) {
+            double r = Math.floor((viewY + (cy + 0.5) * square - gridMinY) / cell);
+            if (r < 0 || r >= lr) {
+                continue;
+            }
+            int row = (int) r * lc;
+            for (int cx = 0; cx < cols; cx++) {
+                if (column[cx] != -1) {
+                    int n = cells[row + column[cx]];
+                    count[cy * cols + cx] = n;
+                    max = Math.max(max, n);
+                }
+            }
+        }
+
+        // light grey for one node up to black for the densest square
+        int bg = background.getRGB() & 0xFFFFFF;
+        double norm = 1 / Math.log1p(Math.max(1, max));
+        int[] shade = count; // reuse, each count is read once
+        for (int c = 0; c < shade.length; c++) {
+            if (count[c] == 0) {
+                shade[c] = bg;
+            } else {
+                int level = (int) (200 * (1 - Math.log1p(count[c]) * norm));
+                shade[c] = (level << 16) | (level << 8) | level;
+            }
+        }
+
+        if (heatBase == null || heatBase.getWidth() != width || heatBase.getHeight() != height) {
+            heatBase = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+        int[] pixels = ((DataBufferInt) heatBase.getRaster().getDataBuffer()).getData();
+        for (int y = 0; y < height; y++) {
+            int row = (y / HEAT_CELL) * cols, p = y * width;
+            for (int x = 0; x < width; x++) {
+                pixels[p + x] = shade[row + x / HEAT_CELL];
+            }
+        }
+    }
+
+    /**
+     * Lists every element that is not the default color, after colors were
+     * reset or ids moved. Marks keep the lists up to date from then on.
+     */
+    private void findColored() {
+        GraphData d = graph.data;
+        coloredEdgeSet.clear();
+        coloredVertexSet.clear();
+        coloredEdgeCount = 0;
+        coloredVertexCount = 0;
+        for (int e = 0; e < d.edgeCount; e++) {
+            if (d.edgeColor[e] != GraphData.DEFAULT) {
+                if (coloredEdgeCount == coloredEdges.length) {
+                    coloredEdges = Arrays.copyOf(coloredEdges, 2 * coloredEdgeCount);
+                }
+                coloredEdges[coloredEdgeCount++] = e;
+                coloredEdgeSet.set(e);
+            }
+        }
+        for (int v = 0; v < d.vertexCount; v++) {
+            if (d.vertexColor[v] != GraphData.DEFAULT) {
+                if (coloredVertexCount == coloredVertices.length) {
+                    coloredVertices = Arrays.copyOf(coloredVertices, 2 * coloredVertexCount);
+                }
+                coloredVertices[coloredVertexCount++] = v;
+                coloredVertexSet.set(v);
+            }
+        }
+        coloredStale = false;
+    }
+
+    /**
+     * Heatmap mode: copies the density image and draws the colored elements
+     * over it, dropping the ones that went back to the default color.
+     */
+    private void drawOverlay() {
+        GraphData d = graph.data;
+        if (coloredStale) {
+            findColored();
+        }
+        double x0 = worldX(-WIDE_EDGE), y0 = worldY(-WIDE_EDGE);
+        double x1 = worldX(buffer.getWidth() + WIDE_EDGE), y1 = worldY(buffer.getHeight() + WIDE_EDGE);
+        Graphics2D g = buffer.createGraphics();
+        setClip(g, 0, 0, buffer.getWidth(), buffer.getHeight());
+        try {
+            g.drawImage(heatBase, 0, 0, null);
+            // few elements are colored, so one pass switching color per element beats a pass per color
+            int kept = 0;
+            for (int i = 0; i < coloredEdgeCount; i++) {
+                int e = coloredEdges[i];
+                byte c = d.edgeColor[e];
+                if (c == GraphData.DEFAULT) {
+                    coloredEdgeSet.clear(e);
+                    continue;
+                }
+                coloredEdges[kept++] = e;
+                int u = d.edgeU[e], v = d.edgeV[e];
+                if (Math.max(d.x[u], d.x[v]) >= x0 && Math.min(d.x[u], d.x[v]) <= x1
+                        && Math.max(d.y[u], d.y[v]) >= y0 && Math.min(d.y[u], d.y[v]) <= y1) {
+                    g.setColor(Graph.PALETTE[c]);
+                    drawEdge(g, d, e);
+                }
+            }
+            coloredEdgeCount = kept;
+            kept = 0;
+            for (int i = 0; i < coloredVertexCount; i++) {
+                int v = coloredVertices[i];
+                byte c = d.vertexColor[v];
+                if (c == GraphData.DEFAULT) {
+                    coloredVertexSet.clear(v);
+                    continue;
+                }
+                coloredVertices[kept++] = v;
+                if (d.x[v] >= x0 && d.x[v] <= x1 && d.y[v] >= y0 && d.y[v] <= y1) {
+                    g.setColor(Graph.PALETTE[c]);
+                    drawVertex(g, d, v);
+                }
+            }
+            coloredVertexCount = kept;
+        } finally {
+            g.dispose();
+        }
+    }
+
+    private void setClip(Graphics2D g, int x, int y, int w, int h) {
+        g.setClip(x, y, w, h);
+        clipX0 = Math.max(0, x);
+        clipY0 = Math.max(0, y);
+        clipX1 = Math.min(buffer.getWidth(), x + w);
+        clipY1 = Math.min(buffer.getHeight(), y + h);
+    }
+
+    // draws in g's current color
+    private void drawEdge(Graphics2D g, GraphData d, int e) {
+        int u = d.edgeU[e], v = d.edgeV[e];
+        // cut to the buffer first, so zoomed in edges don't run millions of pixels off screen
+        // or overflow int. The cut doesn't depend on the tile, so every tile rounds the same ends
+        double pad = edgeWidth;
+        if (!clipSegment(screenX(d.x[u]), screenY(d.y[u]), screenX(d.x[v]), screenY(d.y[v]),
+                -pad, -pad, buffer.getWidth() + pad, buffer.getHeight() + pad)) {
+            return;
+        }
+        int x0 = (int) Math.floor(segment[0]), y0 = (int) Math.floor(segment[1]);
+        int x1 = (int) Math.floor(segment[2]), y1 = (int) Math.floor(segment[3]);
+        if (edgeWidth == 1) {
+            plotLine(x0, y0, x1, y1, g.getColor().getRGB());
+        } else {
+            g.drawLine(x0, y0, x1, y1);
+        }
+    }
+
+    /**
+     * Liang-Barsky: cuts the segment (ax, ay) - (bx, by) to the rectangle
+     * [minX, maxX] x [minY, maxY] and leaves what is left in segment.
+     *
+     * @return - false if none of it is inside
+     */
+    private boolean clipSegment(double ax, double ay, double bx, double by,
+                                double minX, double minY, double maxX, double maxY) {
+        double dx = bx - ax, dy = by - ay;
+        clipT0 = 0;
+        clipT1 = 1;
+        if (!clipSide(-dx, ax - minX) || !clipSide(dx, maxX - ax)
+                || !clipSide(-dy, ay - minY) || !clipSide(dy, maxY - ay)) {
+            return false;
+        }
+        double t0 = clipT0, t1 = clipT1;
+        segment[0] = ax + t0 * dx;
+        segment[1] = ay + t0 * dy;
+        segment[2] = ax + t1 * dx;
+        segment[3] = ay + t1 * dy;
+        return true;
+    }
+
+    // one side of the rectangle as p * t <= q, narrows [clipT0, clipT1]
+    private boolean clipSide(double p, double q) {
+        if (p == 0) {
+            return q >= 0; // parallel to the side, all inside or all outside
+        }
+        double t = q / p;
+        if (p < 0) {
+            clipT0 = Math.max(clipT0, t);
+        } else {
+            clipT1 = Math.min(clipT1, t);
+        }
+        // also false for NaN, e.g. a vertex at infinity
+        return clipT0 <= clipT1;
+    }
+
+    // draws in g's current color
+    private void drawVertex(Graphics2D g, GraphData d, int v) {
+        int left = (int) screenX(d.x[v]) - nodeSize / 2, top = (int) screenY(d.y[v]) - nodeSize / 2;
+        plotMask(left, top, nodeSize, nodeSize == DOT_SIZE ? dotMask : nodeMask, g.getColor().getRGB());
+        if (labels) {
+            g.drawString(Integer.toString((int) d.x[v]) + Integer.toString((int) d.y[v]), left + nodeSize, top + nodeSize);
+        }
+    }
+
+    /**
+     * Line into the pixel array with one pixel per step along its longer
+     * axis, the other coordinate rounded like Bresenham's. Each pixel is
+     * worked out from its step alone, so only the steps inside the clip are
+     * walked and a line comes out the same whether it is drawn whole or one
+     * tile at a time.
+     */
+    private void plotLine(int x0, int y0, int x1, int y1, int rgb) {
+        if (Math.max(x0, x1) < clipX0 || Math.min(x0, x1) >= clipX1
+                || Math.max(y0, y1) < clipY0 || Math.min(y0, y1) >= clipY1) {
+            return;
+        }
+        int width = buffer.getWidth();
+        int dx = x1 - x0, dy = y1 - y0;
+        if (Math.abs(dx) >= Math.abs(dy)) {
+            int n = Math.abs(dx), sx = dx < 0 ? -1 : 1;
+            int from = Math.max(0, sx > 0 ? clipX0 - x0 : x0 - (clipX1 - 1));
+            int to = Math.min(n, sx > 0 ? clipX1 - 1 - x0 : x0 - clipX0);
+            for (int i = from; i <= to; i++) {
+                int y = n == 0 ? y0 : y0 + (int) Math.floorDiv(2L * i * dy + n, 2L * n);
+                if (y >= clipY0 && y < clipY1) {
+                    pixels[y * width + x0 + sx * i] = rgb;
+                }
+            }
+        } else {
+            int n = Math.abs(dy), sy = dy < 0 ? -1 : 1;
+            int from = Math.max(0, sy > 0 ? clipY0 - y0 : y0 - (clipY1 - 1));
+            int to = Math.min(n, sy > 0 ? clipY1 - 1 - y0 : y0 - clipY0);
+            for (int i = from; i <= to; i++) {
+                int x = x0 + (int) Math.floorDiv(2L * i * dx + n, 2L * n);
+                if (x >= clipX0 && x < clipX1) {
+                    pixels[(y0 + sy * i) * width + x] = rgb;
+                }
+            }
+        }
+    }
+
+    private void plotMask(int left, int top, int size, boolean[] mask, int rgb) {
+        int width = buffer.getWidth();
+        int y0 = Math.max(top, clipY0), y1 = Math.min(top + size, clipY1);
+        int x0 = Math.max(left, clipX0), x1 = Math.min(left + size, clipX1);
+        for (int y = y0; y < y1; y++) {
+            int m = (y - top) * size - left, p = y * width;
+            for (int x = x0; x < x1; x++) {
+                if (mask[m + x]) {
+                    pixels[p + x] = rgb;
+                }
+            }
+        }
+    }
+
+    private static boolean[] circleMask(int size) {
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.BLACK);
+        g.fillOval(0, 0, size, size);
+        g.dispose();
+        boolean[] mask = new boolean[size * size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                mask[y * size + x] = (image.getRGB(x, y) >>> 24) != 0;
+            }
+        }
+        return mask;
+    }
+}
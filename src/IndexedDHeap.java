@@ -0,0 +1,135 @@
+/**
+ * Indexed d-ary min heap over the ids 0 .. capacity-1 with primitive double keys.
+ *
+ * pos[id] tracks where each id sits in the heap, so contains() is O(1) and
+ * decreaseKey() can sift the element up in O(log_d n).
+ * A larger arity makes decreaseKey cheaper and poll more expensive,
+ * which suits dense graphs where decreases outnumber polls.
+ */
+public class IndexedDHeap {
+
+    public final int d;
+    public int[] heap;   // heap[i] = id stored at slot i
+    public int[] pos;    // pos[id] = slot of id, -1 if not in heap
+    public double[] key; // key[id]
+    public int size = 0;
+
+    public IndexedDHeap(int capacity, int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("arity must be at least 2, got " + arity);
+        }
+        this.d = arity;
+        this.heap = new int[capacity];
+        this.pos = new int[capacity];
+        this.key = new double[capacity];
+        java.util.Arrays.fill(pos, -1);
+    }
+
+    /**
+     * Picks an arity from the average degree: 2 for sparse graphs, up to 8 for dense ones.
+     */
+    public static int arityFor(int vertexCount, int edgeCount) {
+        if (vertexCount == 0) {
+            return 2;
+        }
+        return Math.max(2, Math.min(8, edgeCount / vertexCount));
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int id) {
+        return pos[id] >= 0;
+    }
+
+    public double keyOf(int id) {
+        return key[id];
+    }
+
+    public void insert(int id, double k) {
+        key[id] = k;
+        heap[size] = id;
+        pos[id] = size;
+        siftUp(size++);
+    }
+
+    /**
+     * Lowers the key of an id already in the heap. Larger keys are ignored.
+     *
+     * @return - true if the key was lowered
+     */
+    public boolean decreaseKey(int id, double k) {
+        if (k >= key[id]) {
+            return false;
+        }
+        key[id] = k;
+        siftUp(pos[id]);
+        return true;
+    }
+
+    public int peek() {
+        return heap[0];
+    }
+
+    /**
+     * @return - id with the smallest key, which is removed from the heap
+     */
+    public int poll() {
+        int min = heap[0];
+        pos[min] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            pos[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    private void siftUp(int i) {
+        int id = heap[i];
+        double k = key[id];
+        while (i > 0) {
+            int parent = (i - 1) / d;
+            int p = heap[parent];
+            if (key[p] <= k) {
+                break;
+            }
+            heap[i] = p;
+            pos[p] = i;
+            i = parent;
+        }
+        heap[i] = id;
+        pos[id] = i;
+    }
+
+    private void siftDown(int i) {
+        int id = heap[i];
+        double k = key[id];
+        while (true) {
+            int first = i * d + 1;
+            if (first >= size) {
+                break;
+            }
+            int last = Math.min(first + d, size);
+            int best = first;
+            double bestKey = key[heap[first]];
+            for (int c = first + 1; c < last; c++) {
+                double ck = key[heap[c]];
+                if (ck < bestKey) {
+                    best = c;
+                    bestKey = ck;
+                }
+            }
+            if (bestKey >= k) {
+                break;
+            }
+            heap[i] = heap[best];
+            pos[heap[i]] = i;
+            i = best;
+        }
+        heap[i] = id;
+        pos[id] = i;
+    }
+}
@@ -0,0 +1,58 @@
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Builds sparse test graphs by connecting every vertex to its k nearest
+ * neighbours. The neighbour lists are found in parallel on a SpatialGrid,
+ * and an edge found from both ends is only added once.
+ */
+public class KnnGraph {
+
+    /**
+     * @param points - vertex positions, its edges are ignored
+     * @return - new graph on the same vertices with the k-nearest-neighbour edges
+     */
+    public static GraphData build(GraphData points, int k) {
+        return build(points, k, ForkJoinPool.commonPool());
+    }
+
+    public static GraphData build(GraphData points, int k, ForkJoinPool pool) {
+        int n = points.vertexCount;
+        SpatialGrid grid = new SpatialGrid(points);
+
+        // knn[v*k .. v*k+found[v]-1] = neighbours of v
+        int[] knn = new int[n * k];
+        int[] found = new int[n];
+        ParallelFor.run(pool, 0, n, ParallelFor.grainFor(pool, n), (from, to) -> {
+            int[] ids = new int[k];
+            double[] dist = new double[k];
+            for (int v = from; v < to; v++) {
+                found[v] = grid.kNearest(points.x[v], points.y[v], k, v, ids, dist);
+                System.arraycopy(ids, 0, knn, v * k, found[v]);
+            }
+        });
+
+        GraphData g = new GraphData(n, n * k);
+        for (int v = 0; v < n; v++) {
+            g.addVertex(points.x[v], points.y[v]);
+        }
+        for (int u = 0; u < n; u++) {
+            for (int i = 0; i < found[u]; i++) {
+                int v = knn[u * k + i];
+                // u < v adds every edge once, unless v doesn't list u back
+                if (u < v || !lists(knn, found, v, u, k)) {
+                    g.addEdge(u, v, g.lengthSquared(u, v));
+                }
+            }
+        }
+        return g;
+    }
+
+    private static boolean lists(int[] knn, int[] found, int v, int u, int k) {
+        for (int i = 0; i < found[v]; i++) {
+            if (knn[v * k + i] == u) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
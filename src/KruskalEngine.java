@@ -0,0 +1,75 @@
+/**
+ * Headless Kruskal's algorithm.
+ * Takes edge ids in weight order and accepts every edge that joins two
+ * different trees of the union-find, stopping as soon as the forest can't
+ * take any more. The order comes from an incremental quicksort, so the
+ * heavy edges left over at that point are never sorted.
+ */
+public class KruskalEngine {
+
+    public final GraphData graph;
+    public final int componentCount;
+    public UnionFind sets;
+
+    public KruskalEngine(GraphData graph) {
+        this(graph, 1);
+    }
+
+    /**
+     * @param componentCount - connected components of graph, if known, so a
+     *                         disconnected graph can stop early too
+     */
+    public KruskalEngine(GraphData graph, int componentCount) {
+        this.graph = graph;
+        this.componentCount = componentCount;
+    }
+
+    public MstResult run() {
+        return run(StepListener.NONE);
+    }
+
+    public MstResult run(StepListener listener) {
+        GraphData g = graph;
+        AlgorithmMetrics metrics = new AlgorithmMetrics("kruskal", g);
+        metrics.phase("setup");
+        int[] ids = new int[g.edgeCount];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i;
+        }
+        EdgeSort.Incremental order = new EdgeSort.Incremental(ids, 0, ids.length, g.weight);
+        sets = new UnionFind(g.vertexCount);
+        MstResult mst = new MstResult(g.vertexCount - 1);
+        long examined = 0;
+
+        metrics.phase("scan");
+        while (order.hasNext()) {
+            // a spanning forest of V vertices and C components has V - C edges
+            if (sets.sets <= componentCount) {
+                break;
+            }
+            int e = order.next();
+            examined++;
+            listener.edgeConsidered(e);
+
+            int root1 = sets.find(g.edgeU[e]);
+            int root2 = sets.find(g.edgeV[e]);
+
+            // found tree with different root connected by edge e.
+            if (root1 != root2) {
+                sets.link(root1, root2);
+                mst.add(e, g.weight[e]);
+                listener.edgeAccepted(e);
+            } else {
+                listener.edgeRejected(e);
+            }
+        }
+
+        metrics.edgesExamined = examined;
+        metrics.finds = sets.findCalls;
+        metrics.findSteps = sets.findSteps;
+        metrics.maxFindDepth = sets.maxFindDepth;
+        metrics.unions = mst.edgeCount;
+        mst.metrics = metrics.finish();
+        return mst;
+    }
+}
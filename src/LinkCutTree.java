@@ -0,0 +1,239 @@
+import java.util.Arrays;
+
+/**
+ * Link-cut tree (Sleator-Tarjan) over a forest of int nodes, with a value per node
+ * and path maximum queries. Every operation is O(log n) amortized.
+ *
+ * Spanning forests store each tree edge as its own node between its two vertex
+ * nodes, so pathMax() returns the heaviest edge on the path between two vertices.
+ * Nodes are allocated with newNode() and handed back with free().
+ */
+public class LinkCutTree {
+
+    public int[] left, right, parent;
+    public boolean[] flip;  // subtree's left and right children still need swapping
+    public double[] value;
+    public int[] maxNode;   // node holding the max value in the splay subtree
+
+    public int capacity = 0;
+    private int used = 0;
+    private int[] freeList = new int[0];
+    private int freeCount = 0;
+    private int[] stack = new int[16];
+
+    public LinkCutTree(int capacity) {
+        left = new int[capacity];
+        right = new int[capacity];
+        parent = new int[capacity];
+        flip = new boolean[capacity];
+        value = new double[capacity];
+        maxNode = new int[capacity];
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return - id of a new single node tree holding val
+     */
+    public int newNode(double val) {
+        int x;
+        if (freeCount > 0) {
+            x = freeList[--freeCount];
+        } else {
+            if (used == capacity) {
+                grow(Math.max(16, capacity * 2));
+            }
+            x = used++;
+        }
+        left[x] = right[x] = parent[x] = -1;
+        flip[x] = false;
+        value[x] = val;
+        maxNode[x] = x;
+        return x;
+    }
+
+    /**
+     * Hands back a node that has already been cut from every neighbour.
+     */
+    public void free(int x) {
+        if (freeCount == freeList.length) {
+            freeList = Arrays.copyOf(freeList, Math.max(16, freeCount * 2));
+        }
+        freeList[freeCount++] = x;
+    }
+
+    private void grow(int size) {
+        left = Arrays.copyOf(left, size);
+        right = Arrays.copyOf(right, size);
+        parent = Arrays.copyOf(parent, size);
+        flip = Arrays.copyOf(flip, size);
+        value = Arrays.copyOf(value, size);
+        maxNode = Arrays.copyOf(maxNode, size);
+        capacity = size;
+    }
+
+    // ============================ Splay trees =================================
+
+    private boolean isSplayRoot(int x) {
+        int p = parent[x];
+        return p == -1 || (left[p] != x && right[p] != x);
+    }
+
+    private void update(int x) {
+        int m = x;
+        int l = left[x], r = right[x];
+        if (l != -1 && value[maxNode[l]] > value[m]) m = maxNode[l];
+        if (r != -1 && value[maxNode[r]] > value[m]) m = maxNode[r];
+        maxNode[x] = m;
+    }
+
+    private void push(int x) {
+        if (flip[x]) {
+            int t = left[x];
+            left[x] = right[x];
+            right[x] = t;
+            if (left[x] != -1) flip[left[x]] ^= true;
+            if (right[x] != -1) flip[right[x]] ^= true;
+            flip[x] = false;
+        }
+    }
+
+    private void rotate(int x) {
+        int p = parent[x], g = parent[p];
+        if (!isSplayRoot(p)) {
+            if (left[g] == p) left[g] = x; else right[g] = x;
+        }
+        parent[x] = g;
+        if (left[p] == x) {
+            left[p] = right[x];
+            if (right[x] != -1) parent[right[x]] = p;
+            right[x] = p;
+        } else {
+            right[p] = left[x];
+            if (left[x] != -1) parent[left[x]] = p;
+            left[x] = p;
+        }
+        parent[p] = x;
+        update(p);
+        update(x);
+    }
+
+    private void splay(int x) {
+        // push pending flips from the splay root down to x first
+        int top = 0;
+        int y = x;
+        push(y, top++);
+        while (!isSplayRoot(y)) {
+            y = parent[y];
+            push(y, top++);
+        }
+        while (top > 0) {
+            push(stack[--top]);
+        }
+
+        while (!isSplayRoot(x)) {
+            int p = parent[x];
+            if (!isSplayRoot(p)) {
+                int g = parent[p];
+                boolean zigZig = (left[g] == p) == (left[p] == x);
+                rotate(zigZig ? p : x);
+            }
+            rotate(x);
+        }
+    }
+
+    private void push(int x, int at) {
+        if (at == stack.length) {
+            stack = Arrays.copyOf(stack, at * 2);
+        }
+        stack[at] = x;
+    }
+
+    // ============================ Preferred paths =================================
+
+    private void access(int x) {
+        int last = -1;
+        for (int y = x; y != -1; y = parent[y]) {
+            splay(y);
+            right[y] = last;
+            update(y);
+            last = y;
+        }
+        splay(x);
+    }
+
+    /**
+     * Makes x the root of its tree.
+     */
+    public void makeRoot(int x) {
+        access(x);
+        flip[x] ^= true;
+    }
+
+    public int findRoot(int x) {
+        access(x);
+        int r = x;
+        push(r);
+        while (left[r] != -1) {
+            r = left[r];
+            push(r);
+        }
+        splay(r);
+        return r;
+    }
+
+    public boolean connected(int x, int y) {
+        return x == y || findRoot(x) == findRoot(y);
+    }
+
+    /**
+     * Joins the trees of x and y with an edge between them. They must not be connected.
+     */
+    public void link(int x, int y) {
+        makeRoot(x);
+        parent[x] = y;
+    }
+
+    /**
+     * Removes the tree edge between x and y.
+     */
+    public void cut(int x, int y) {
+        makeRoot(x);
+        access(y);
+        // x is now y's left child with nothing in between
+        left[y] = -1;
+        parent[x] = -1;
+        update(y);
+    }
+
+    /**
+     * Changes the value stored at x.
+     */
+    public void setValue(int x, double val) {
+        access(x);
+        value[x] = val;
+        update(x);
+    }
+
+    /**
+     * @return - node with the largest value on the path from x to y. They must be connected.
+     */
+    public int pathMax(int x, int y) {
+        makeRoot(x);
+        access(y);
+        return maxNode[y];
+    }
+
+    /**
+     * Same as pathMax() but checks connectivity on the way.
+     *
+     * @return - node with the largest value on the path from x to y, -1 if they aren't connected
+     */
+    public int pathMaxIfConnected(int x, int y) {
+        makeRoot(x);
+        if (findRoot(y) != x) {
+            return -1;
+        }
+        access(y);
+        return maxNode[y];
+    }
+}
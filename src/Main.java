@@ -1,6 +1,13 @@
 public class Main {
 
-    public static void main(String[] args) {
+    /**
+     * Opens the editor, or with "batch" as the first argument solves graph files headless, see BatchRunner.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("batch")) {
+            BatchRunner.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         MainFrame mainFrame = new MainFrame("MST");
     }
 
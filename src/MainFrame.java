@@ -1,16 +1,21 @@
 import javax.swing.*;
 import java.awt.*;
+import java.io.IOException;
 import java.util.ArrayList;
 
 public class MainFrame extends JFrame {
 
     public JPanel buttonPanel;
     final public int BUTTON_H = 250, BUTTON_W = 50;
+    final public int K_NEAREST = 3;
 
-    public ArrayList<ArrayList<JButton>> layers;
-    public ArrayList<JButton> layer1; // creation
-    public ArrayList<JButton> layer2; // algorithm
-    public ArrayList<JButton> layer3; // animation
+    // speed slider positions, each one is 10^(1/10) times faster than the last and the top one is unlimited
+    final public int SPEED_TICKS = 60;
+
+    public ArrayList<ArrayList<JComponent>> layers;
+    public ArrayList<JComponent> layer1; // creation
+    public ArrayList<JComponent> layer2; // algorithm
+    public ArrayList<JComponent> layer3; // animation
 
     public Graph graph;
 
@@ -32,25 +37,51 @@ public class MainFrame extends JFrame {
         // init buttons
         JButton nodeB = createAddNodeButton();
         JButton edgeB = createAddEdgeButton();
+        JButton nearestB = createConnectNearestButton();
         JButton solveB = createSolveGraphButton();
         layer1.add(nodeB);
         layer1.add(edgeB);
+        layer1.add(nearestB);
+        JButton saveB = createSaveButton();
+        JButton openB = createOpenButton();
+        JButton fitB = createFitViewButton();
         layer1.add(solveB);
+        layer1.add(saveB);
+        layer1.add(openB);
+        layer1.add(fitB);
 
         JButton kruskalB = createKruskalButton();
+        JButton filterKruskalB = createFilterKruskalButton();
         JButton primB = createPrimButton();
+        JButton boruvkaB = createBoruvkaButton();
+        JButton euclideanB = createEuclideanButton();
+        JButton forestB = createSpanningForestButton();
         JButton bfsB = createBFSButton();
         JButton dfsB = createDFSButton();
+        JButton aStarB = createAStarButton();
+        JButton bidirectionalB = createBidirectionalButton();
         JButton backToL1B = createBackButton(1);
         layer2.add(kruskalB);
+        layer2.add(filterKruskalB);
         layer2.add(primB);
+        layer2.add(boruvkaB);
+        layer2.add(euclideanB);
+        layer2.add(forestB);
         layer2.add(bfsB);
         layer2.add(dfsB);
+        layer2.add(aStarB);
+        layer2.add(bidirectionalB);
         layer2.add(backToL1B);
 
         JButton startB = createStartStopAnimationButton();
+        JButton stepB = createStepButton();
+        JLabel speedL = new JLabel("", SwingConstants.CENTER);
+        JSlider speedS = createSpeedSlider(speedL);
         JButton backToL2B = createBackButton(2);
         layer3.add(startB);
+        layer3.add(stepB);
+        layer3.add(speedS);
+        layer3.add(speedL);
         layer3.add(backToL2B);
 
         // start program at creation layer
@@ -120,14 +151,14 @@ public class MainFrame extends JFrame {
      * @param l - which version of the button panel to create (1, 2, or 3)
      */
     public void switchToLayer(int l) {
-        ArrayList<JButton> layer = layers.get(l - 1);
+        ArrayList<JComponent> layer = layers.get(l - 1);
         clearPanel(buttonPanel);
-        for (JButton b : layer) {
+        for (JComponent c : layer) {
             // reset start and stop text on button
-            if (b.getText() == "Stop") {
-                b.setText("Start");
+            if (c instanceof JButton && ((JButton) c).getText() == "Stop") {
+                ((JButton) c).setText("Start");
             }
-            buttonPanel.add(b);
+            buttonPanel.add(c);
         }
         refreshPanel(buttonPanel);
 
@@ -162,6 +193,71 @@ public class MainFrame extends JFrame {
         return addEdgeButton;
     }
 
+    /**
+     * Connects every node to its K_NEAREST closest nodes
+     */
+    public JButton createConnectNearestButton() {
+        JButton nearestButton = makeButton("Connect Nearest", BUTTON_H, BUTTON_W);
+        nearestButton.addActionListener(e -> {
+            enableComponentsOnPanel(buttonPanel);
+            graph.setGraphState(-1);
+            graph.connectKNearest(K_NEAREST);
+        });
+        return nearestButton;
+    }
+
+    /**
+     * Saves the graph to a binary graph file
+     */
+    public JButton createSaveButton() {
+        JButton saveButton = makeButton("Save", BUTTON_H, BUTTON_W);
+        saveButton.addActionListener(e -> {
+            enableComponentsOnPanel(buttonPanel);
+            graph.setGraphState(-1);
+            JFileChooser chooser = new JFileChooser();
+            if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+                return;
+            }
+            try {
+                graph.save(chooser.getSelectedFile().toPath());
+            } catch (IOException ex) {
+                JOptionPane.showMessageDialog(this, "Could not save graph: " + ex.getMessage());
+            }
+        });
+        return saveButton;
+    }
+
+    /**
+     * Replaces the graph with one loaded from a binary graph file
+     */
+    public JButton createOpenButton() {
+        JButton openButton = makeButton("Open", BUTTON_H, BUTTON_W);
+        openButton.addActionListener(e -> {
+            enableComponentsOnPanel(buttonPanel);
+            graph.setGraphState(-1);
+            JFileChooser chooser = new JFileChooser();
+            if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+                return;
+            }
+            try {
+                graph.load(chooser.getSelectedFile().toPath());
+            } catch (IOException ex) {
+                JOptionPane.showMessageDialog(this, "Could not open graph: " + ex.getMessage());
+            }
+        });
+        return openButton;
+    }
+
+    /**
+     * Zooms the graph so every node is in view.
+     * Drag to pan and use the mouse wheel to zoom
+     */
+    public JButton createFitViewButton() {
+        JButton fitButton = makeButton("Fit View", BUTTON_H, BUTTON_W);
+        fitButton.addActionListener(e -> graph.fitView());
+        return fitButton;
+    }
+
     /**
      * Remove addNode and addEdge buttons
      * Saves existing graph
@@ -193,6 +289,22 @@ public class MainFrame extends JFrame {
         return kruskalButton;
     }
 
+    /**
+     * Find MST of graph using filter-kruskal, which skips sorting heavy edges
+     * that would only close a cycle
+     */
+    public JButton createFilterKruskalButton() {
+        JButton filterKruskalButton = makeButton("Filter-Kruskal", BUTTON_H, BUTTON_W);
+        filterKruskalButton.addActionListener(e -> {
+            switchToLayer(3);
+
+            graph.setGraphState(10);
+            graph.setMethod("filterKruskal");
+            graph.animateGraphAlgorithm();
+        });
+        return filterKruskalButton;
+    }
+
     /**
      * Finds MST of graph using prim's algorithm
      */
@@ -208,6 +320,51 @@ public class MainFrame extends JFrame {
         return primButton;
     }
 
+    /**
+     * Finds MST of graph using boruvka's algorithm
+     */
+    public JButton createBoruvkaButton() {
+        JButton boruvkaButton = makeButton("Boruvka", BUTTON_H, BUTTON_W);
+        boruvkaButton.addActionListener(e -> {
+            switchToLayer(3);
+
+            graph.setGraphState(10);
+            graph.setMethod("boruvka");
+            graph.animateGraphAlgorithm();
+        });
+        return boruvkaButton;
+    }
+
+    /**
+     * Finds MST of the complete graph on the nodes through a delaunay triangulation
+     */
+    public JButton createEuclideanButton() {
+        JButton euclideanButton = makeButton("Euclidean MST", BUTTON_H, BUTTON_W);
+        euclideanButton.addActionListener(e -> {
+            switchToLayer(3);
+
+            graph.setGraphState(10);
+            graph.setMethod("euclidean");
+            graph.animateGraphAlgorithm();
+        });
+        return euclideanButton;
+    }
+
+    /**
+     * Minimum spanning tree of every connected component
+     */
+    public JButton createSpanningForestButton() {
+        JButton forestButton = makeButton("Spanning Forest", BUTTON_H, BUTTON_W);
+        forestButton.addActionListener(e -> {
+            switchToLayer(3);
+
+            graph.setGraphState(10);
+            graph.setMethod("forest");
+            graph.animateGraphAlgorithm();
+        });
+        return forestButton;
+    }
+
     public JButton createBFSButton() {
         JButton BFSButton = makeButton("BFS", BUTTON_H, BUTTON_W);
         BFSButton.addActionListener(e -> {
@@ -232,6 +389,34 @@ public class MainFrame extends JFrame {
         return DFSButton;
     }
 
+    /**
+     * Minimum weight path between two chosen nodes, guided by the straight line distance
+     */
+    public JButton createAStarButton() {
+        JButton aStarButton = makeButton("A*", BUTTON_H, BUTTON_W);
+        aStarButton.addActionListener(e -> {
+            switchToLayer(3);
+
+            graph.setGraphState(4);
+            graph.setMethod("A*");
+        });
+        return aStarButton;
+    }
+
+    /**
+     * Minimum weight path between two chosen nodes, searching from both ends
+     */
+    public JButton createBidirectionalButton() {
+        JButton bidirectionalButton = makeButton("Bi-Dijkstra", BUTTON_H, BUTTON_W);
+        bidirectionalButton.addActionListener(e -> {
+            switchToLayer(3);
+
+            graph.setGraphState(4);
+            graph.setMethod("bidirectional");
+        });
+        return bidirectionalButton;
+    }
+
     /**
      * Takes user back a previous layer
      * @param l - layer to go back to
@@ -266,4 +451,47 @@ public class MainFrame extends JFrame {
         });
         return startButton;
     }
+
+    /**
+     * Shows one more step of a paused animation
+     */
+    public JButton createStepButton() {
+        JButton stepButton = makeButton("Step", BUTTON_H, BUTTON_W);
+        stepButton.addActionListener(e -> {
+            if (graph.getGraphState() != 10)
+                return;
+            graph.control.step();
+        });
+        return stepButton;
+    }
+
+    /**
+     * Sets how many steps per second the animation shows, it can be changed while it runs
+     * @param speedLabel - label that shows the chosen speed
+     */
+    public JSlider createSpeedSlider(JLabel speedLabel) {
+        int start = (int) Math.round(10 * Math.log10(AnimationControl.DEFAULT_SPEED));
+        JSlider speedSlider = new JSlider(0, SPEED_TICKS, start);
+        speedSlider.setPreferredSize(new Dimension(BUTTON_H, BUTTON_W));
+        speedLabel.setFont(new Font("Arial", Font.PLAIN, 30));
+        speedLabel.setPreferredSize(new Dimension(BUTTON_H, BUTTON_W));
+        speedSlider.addChangeListener(e -> applySpeed(speedSlider.getValue(), speedLabel));
+        applySpeed(start, speedLabel);
+        return speedSlider;
+    }
+
+    /**
+     * @param tick - speed slider position
+     * @param speedLabel - label that shows the chosen speed
+     */
+    public void applySpeed(int tick, JLabel speedLabel) {
+        if (tick == SPEED_TICKS) {
+            graph.control.setSpeed(AnimationControl.AS_FAST_AS_POSSIBLE);
+            speedLabel.setText("Max speed");
+        } else {
+            double speed = Math.pow(10, tick / 10.0);
+            graph.control.setSpeed(speed);
+            speedLabel.setText(String.format("%.3g steps/s", speed));
+        }
+    }
 }
@@ -0,0 +1,32 @@
+/**
+ * Output of an MST engine: the ids of the accepted edges in the order
+ * they were accepted and their total weight.
+ */
+public class MstResult {
+
+    public int[] edges;
+    public int edgeCount = 0;
+    public double weight = 0;
+    public AlgorithmMetrics metrics; // counters of the run, null if the engine keeps none
+
+    public MstResult(int capacity) {
+        edges = new int[Math.max(0, capacity)];
+    }
+
+    public void add(int edge, double w) {
+        if (edgeCount == edges.length) {
+            edges = java.util.Arrays.copyOf(edges, Math.max(1, 2 * edgeCount));
+        }
+        edges[edgeCount++] = edge;
+        weight += w;
+    }
+
+    public int[] edgeIds() {
+        return java.util.Arrays.copyOf(edges, edgeCount);
+    }
+
+    @Override
+    public String toString() {
+        return "MST edges = " + edgeCount + ", weight = " + weight;
+    }
+}
@@ -1,83 +1,59 @@
-import javax.swing.*;
 import java.awt.*;
-import java.awt.event.MouseEvent;
-import java.awt.event.MouseListener;
-import java.awt.geom.Ellipse2D;
 
-public class Node extends JPanel implements MouseListener{
+/**
+ * A vertex of a Graph. Its position, color and visited flag live in
+ * parentGraph.data at index id, and GraphRenderer draws it.
+ */
+public class Node {
 
-    public Point vertex;
-    public String name;
     public Graph parentGraph;
-    public Color color;
+    public int id; // index in Graph.nodes and parentGraph.data
 
-    public Ellipse2D.Double circle;
+    final public static int NODE_SIZE = 26;
 
-    // for search algorithms (BFS and DFS)
-    public boolean visited = false;
-
-    final public int NODE_SIZE = 26;
-
-    public Node(int x, int y, Graph parentGraph) {
-        this.vertex = new Point(x, y);
-        this.name = Integer.toString(x) + Integer.toString(y);
+    /**
+     * Create nodes with Graph.addNode, which adds the vertex to the data first.
+     */
+    Node(Graph parentGraph, int id) {
         this.parentGraph = parentGraph;
-        this.circle = new Ellipse2D.Double(0, 0, NODE_SIZE, NODE_SIZE);
-        this.color = Graph.DEFAULT_C;
+        this.id = id;
 
-        // if not included, parentGraph will detect click instead
-        addMouseListener(this);
+        if (Trace.DEBUG) {
+            Trace.log("Node = " + getName());
+        }
+    }
 
-        // set JPanel specs
-        setOpaque(false);
-        setBounds(x - NODE_SIZE/2, y - NODE_SIZE/2, NODE_SIZE*3, NODE_SIZE);
-        setPreferredSize(new Dimension(NODE_SIZE, NODE_SIZE)); // calls paintcomponent
+    public double x() {
+        return parentGraph.data.x[id];
+    }
 
-        System.out.println("Node = " + name);
+    public double y() {
+        return parentGraph.data.y[id];
     }
 
     public String getName() {
-        return this.name;
+        return Integer.toString((int) x()) + Integer.toString((int) y());
     }
 
     public void setVisited(boolean visited) {
-        this.visited = visited;
+        parentGraph.data.visited[id] = visited;
     }
 
     public boolean getVisited() {
-        return this.visited;
+        return parentGraph.data.visited[id];
     }
 
     public void setColor(Color color) {
-        this.color = color;
+        parentGraph.data.vertexColor[id] = Graph.colorIndex(color);
+        parentGraph.renderer.markVertex(id);
     }
 
     public Color getColor() {
-        return this.color;
-    }
-
-    public void refreshNode() {
-        repaint();
-        revalidate();
-    }
-
-    /**
-     * Redraws node when changes are made
-     * @param g - graphics object
-     */
-    @Override
-    public void paintComponent(Graphics g) {
-        super.paintComponent(g);
-        Graphics2D g2d = (Graphics2D) g;
-        g.setColor(color);
-
-        // draw node and name it
-        g.drawString(name, NODE_SIZE, NODE_SIZE);
-        g2d.fill(circle);
+        return Graph.PALETTE[parentGraph.data.vertexColor[id]];
     }
 
     /**
-     * Called when in add edge state and a node on the gui is clicked
+     * Called by the graph when in add edge state and a node on the gui is clicked
      *
      * Handles edge forming. Select two existing nodes and an edge will appear between them.
      * Selecting the first node will highlight it. Click the node again to un-select.
@@ -85,24 +61,21 @@ public class Node extends JPanel implements MouseListener{
      *
      * When clicked on it for BFS and DFS, first one clicked is starting node,
      * and second one clicked is the desire node
-     *
-     * @param e - where mouse was clicked on node
      */
-    @Override
-    public void mouseClicked(MouseEvent e) {
+    public void clicked() {
         // select first node for edge
         if (parentGraph.getGraphState() == 1) {
-            color = Graph.HIGHLIGHT;
+            setColor(Graph.HIGHLIGHT);
             parentGraph.edge_node1 = this;
             parentGraph.setGraphState(2);
         }
 
         // form edge if two unique nodes are selected
         else if (parentGraph.getGraphState() == 2) {
-            if (color != Graph.HIGHLIGHT) {
+            if (getColor() != Graph.HIGHLIGHT) {
                 Edge existingEdge = parentGraph.findEdge(parentGraph.edge_node1, this);
                 if (existingEdge == null) {
-                    parentGraph.addEdge(new Edge(parentGraph.edge_node1, this));
+                    parentGraph.addEdge(parentGraph.edge_node1, this);
                 }
             }
             parentGraph.edge_node1.setColor(Graph.DEFAULT_C);
@@ -111,7 +84,7 @@ public class Node extends JPanel implements MouseListener{
 
         // select starting node for search algorithm
         else if (parentGraph.getGraphState() == 4) {
-            color = Graph.FINAL_C;
+            setColor(Graph.FINAL_C);
             parentGraph.startNode = this;
             parentGraph.setGraphState(5);
         }
@@ -124,32 +97,12 @@ public class Node extends JPanel implements MouseListener{
                 parentGraph.startNode = null;
                 parentGraph.setGraphState(4);
             } else {
-                color = Graph.FINAL_C;
+                setColor(Graph.FINAL_C);
                 parentGraph.desiredNode = this;
                 parentGraph.setGraphState(10);
                 parentGraph.animateGraphAlgorithm();
             }
         }
-        refreshNode(); // update and color changes
-    }
-
-    @Override
-    public void mousePressed(MouseEvent e) {
-
-    }
-
-    @Override
-    public void mouseReleased(MouseEvent e) {
-
-    }
-
-    @Override
-    public void mouseEntered(MouseEvent e) {
-
-    }
-
-    @Override
-    public void mouseExited(MouseEvent e) {
-
+        parentGraph.refreshGraph(); // update and color changes
     }
 }
@@ -0,0 +1,279 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless level synchronous breadth first search, parallelised on a ForkJoinPool.
+ *
+ * The visited set is a bitmap with one bit per vertex, owned by the run, so
+ * several searches can run on the same GraphData at once. Each level runs
+ * one of two ways: top-down walks the edges out of a frontier list and claims
+ * unvisited neighbours with an atomic OR on the visited bitmap, while
+ * bottom-up keeps the frontier as a bitmap too and lets every unvisited
+ * vertex look for any neighbour in it and stop at the first. Top-down
+ * wins while the frontier is small, bottom-up once the frontier's edges
+ * outnumber the rest (Beamer's direction-optimizing BFS), so each level
+ * picks the cheaper from the frontier size and the edges left unexplored.
+ */
+public class ParallelBfsEngine {
+
+    // switch to bottom-up once the frontier has more than 1/ALPHA of the unexplored edges
+    public static final int ALPHA = 14;
+    // switch back to top-down once the frontier has fewer than 1/BETA of the vertices
+    public static final int BETA = 24;
+
+    // vertices a top-down chunk collects before reserving room for them in the next frontier
+    private static final int LOCAL_BUFFER = 256;
+
+    private static final VarHandle BITS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    public final GraphData graph;
+    public final ForkJoinPool pool;
+
+    public int[] distance; // levels from start, -1 if not reached
+    public int levels = 0;
+    public int topDownLevels = 0;
+    public int bottomUpLevels = 0;
+
+    public ParallelBfsEngine(GraphData graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    public ParallelBfsEngine(GraphData graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.pool = pool;
+    }
+
+    public SearchResult run(int start, int target) {
+        return run(start, target, StepListener.NONE);
+    }
+
+    /**
+     * Fills distance and result.parentEdge for every vertex reached. With a
+     * target the search stops after the level that reaches it, otherwise it
+     * covers start's whole component. The listener is only called from the
+     * thread that calls run(), once per level for the vertices that level reached.
+     *
+     * @param target - vertex to stop at, or -1 to search the whole component
+     */
+    public SearchResult run(int start, int target, StepListener listener) {
+        GraphData g = graph;
+        AdjacencyIndex adj = g.adjacency();
+        int n = g.vertexCount;
+        int words = (n + 63) >>> 6;
+        SearchResult result = new SearchResult(g, start, target);
+        int[] parentEdge = result.parentEdge;
+        distance = new int[n];
+        Arrays.fill(distance, -1);
+        levels = 0;
+        topDownLevels = 0;
+        bottomUpLevels = 0;
+
+        long[] visited = new long[words];
+        visited[start >>> 6] |= 1L << start;
+        distance[start] = 0;
+
+        if (start == target) {
+            result.found = true;
+            listener.targetFound(start, -1);
+            return result;
+        }
+
+        // the frontier is a vertex list for top-down levels and a bitmap for bottom-up ones
+        int[] queue = new int[n];
+        int[] nextQueue = new int[n];
+        long[] frontierBits = new long[words];
+        long[] nextBits = new long[words];
+        boolean inBits = false;
+        queue[0] = start;
+
+        long frontierSize = 1;
+        long frontierEdges = adj.degree(start); // degree sum of the frontier, -1 until needed
+        long unexploredEdges = 2L * g.edgeCount; // edge ends not yet scanned, the frontier's included
+        boolean bottomUp = false;
+        int wordGrain = ParallelFor.grainFor(pool, words);
+        AtomicInteger tail = new AtomicInteger();
+        AtomicLong nextSize = new AtomicLong();
+        AtomicLong nextEdges = new AtomicLong();
+        AtomicLong scannedEdges = new AtomicLong();
+
+        while (frontierSize > 0) {
+            // the size test comes first so high diameter graphs, whose frontiers stay thin,
+            // neither flip-flop nor pay for the degree sum on every level
+            if (!bottomUp && frontierSize >= n / BETA) {
+                if (frontierEdges < 0) {
+                    frontierEdges = degreeSum(adj, queue, (int) frontierSize);
+                }
+                bottomUp = frontierEdges > (unexploredEdges - frontierEdges) / ALPHA;
+            } else if (bottomUp && frontierSize < n / BETA) {
+                bottomUp = false;
+            }
+            int depth = levels + 1;
+            nextSize.set(0);
+            nextEdges.set(0);
+            scannedEdges.set(0);
+
+            if (bottomUp) {
+                bottomUpLevels++;
+                if (!inBits) {
+                    Arrays.fill(frontierBits, 0L);
+                    for (int i = 0; i < frontierSize; i++) {
+                        frontierBits[queue[i] >>> 6] |= 1L << queue[i];
+                    }
+                    inBits = true;
+                }
+                final long[] front = frontierBits, reached = nextBits;
+                ParallelFor.run(pool, 0, words, wordGrain, (from, to) -> {
+                    long size = 0, edges = 0;
+                    for (int w = from; w < to; w++) {
+                        long unvisited = ~visited[w];
+                        if (w == words - 1 && (n & 63) != 0) {
+                            unvisited &= (1L << n) - 1; // no vertices past n
+                        }
+                        long found = 0;
+                        while (unvisited != 0) {
+                            int v = (w << 6) + Long.numberOfTrailingZeros(unvisited);
+                            unvisited &= unvisited - 1;
+                            // first neighbour in the frontier becomes the parent
+                            for (int i = adj.begin(v); i < adj.end(v); i++) {
+                                int u = adj.target[i];
+                                if ((front[u >>> 6] & (1L << u)) != 0) {
+                                    parentEdge[v] = adj.edge[i];
+                                    distance[v] = depth;
+                                    found |= 1L << v;
+                                    size++;
+                                    edges += adj.degree(v);
+                                    break;
+                                }
+                            }
+                        }
+                        // this chunk owns word w, so no atomics needed here
+                        reached[w] = found;
+                        visited[w] |= found;
+                    }
+                    nextSize.addAndGet(size);
+                    nextEdges.addAndGet(edges);
+                });
+                long[] swap = frontierBits;
+                frontierBits = nextBits;
+                nextBits = swap;
+            } else {
+                topDownLevels++;
+                if (inBits) {
+                    frontierSize = toList(frontierBits, queue);
+                    inBits = false;
+                }
+                final int[] front = queue, reached = nextQueue;
+                int size = (int) frontierSize;
+                tail.set(0);
+                ParallelFor.run(pool, 0, size, ParallelFor.grainFor(pool, size), (from, to) -> {
+                    int[] local = new int[LOCAL_BUFFER];
+                    int count = 0;
+                    long scanned = 0;
+                    for (int j = from; j < to; j++) {
+                        int u = front[j];
+                        scanned += adj.degree(u);
+                        for (int i = adj.begin(u); i < adj.end(u); i++) {
+                            int v = adj.target[i];
+                            // cheap check first, the atomic OR decides which thread gets v
+                            if ((visited[v >>> 6] & (1L << v)) != 0 || !claim(visited, v)) {
+                                continue;
+                            }
+                            parentEdge[v] = adj.edge[i];
+                            distance[v] = depth;
+                            local[count++] = v;
+                            if (count == LOCAL_BUFFER) {
+                                System.arraycopy(local, 0, reached, tail.getAndAdd(count), count);
+                                count = 0;
+                            }
+                        }
+                    }
+                    System.arraycopy(local, 0, reached, tail.getAndAdd(count), count);
+                    scannedEdges.addAndGet(scanned);
+                });
+                nextSize.set(tail.get());
+                int[] swap = queue;
+                queue = nextQueue;
+                nextQueue = swap;
+            }
+
+            result.expanded += frontierSize;
+            levels++;
+            if (bottomUp) {
+                unexploredEdges -= frontierEdges;
+                frontierEdges = nextEdges.get();
+            } else {
+                unexploredEdges -= scannedEdges.get();
+                frontierEdges = -1;
+            }
+            frontierSize = nextSize.get();
+
+            if (listener != StepListener.NONE) {
+                if (inBits) {
+                    report(frontierBits, parentEdge, listener);
+                } else {
+                    for (int i = 0; i < frontierSize; i++) {
+                        listener.vertexReached(queue[i], parentEdge[queue[i]]);
+                    }
+                }
+            }
+            // the whole level is done, so target's parent is final
+            if (target >= 0 && (visited[target >>> 6] & (1L << target)) != 0) {
+                result.found = true;
+                listener.targetFound(target, parentEdge[target]);
+                break;
+            }
+        }
+        return result;
+    }
+
+    private static long degreeSum(AdjacencyIndex adj, int[] vertices, int count) {
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += adj.degree(vertices[i]);
+        }
+        return sum;
+    }
+
+    /**
+     * Writes the set bits of a bitmap out as vertex ids.
+     *
+     * @return - number of ids written
+     */
+    private static int toList(long[] bits, int[] out) {
+        int count = 0;
+        for (int w = 0; w < bits.length; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                out[count++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Atomically sets bit v.
+     *
+     * @return - true if this call set it, false if it was already set
+     */
+    private static boolean claim(long[] bits, int v) {
+        long mask = 1L << v;
+        long old = (long) BITS.getAndBitwiseOr(bits, v >>> 6, mask);
+        return (old & mask) == 0;
+    }
+
+    private static void report(long[] level, int[] parentEdge, StepListener listener) {
+        for (int w = 0; w < level.length; w++) {
+            long bits = level[w];
+            while (bits != 0) {
+                int v = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                listener.vertexReached(v, parentEdge[v]);
+            }
+        }
+    }
+}
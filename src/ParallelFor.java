@@ -0,0 +1,54 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Splits an index range into chunks and runs them on a ForkJoinPool.
+ * Ranges smaller than the grain size run on the calling thread.
+ */
+public class ParallelFor extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    public interface Body {
+        void run(int from, int to);
+    }
+
+    private final int from, to, grain;
+    private final transient Body body; // tasks only ever run in memory, never serialized
+
+    private ParallelFor(int from, int to, int grain, Body body) {
+        this.from = from;
+        this.to = to;
+        this.grain = grain;
+        this.body = body;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= grain) {
+            body.run(from, to);
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        invokeAll(new ParallelFor(from, mid, grain, body),
+                  new ParallelFor(mid, to, grain, body));
+    }
+
+    /**
+     * Runs body over [from, to) and returns once every chunk is done.
+     */
+    public static void run(ForkJoinPool pool, int from, int to, int grain, Body body) {
+        if (to - from <= grain) {
+            body.run(from, to);
+        } else {
+            pool.invoke(new ParallelFor(from, to, Math.max(1, grain), body));
+        }
+    }
+
+    /**
+     * Grain size that gives each worker thread a few chunks to balance over.
+     */
+    public static int grainFor(ForkJoinPool pool, int size) {
+        return Math.max(1024, size / (pool.getParallelism() * 8));
+    }
+}
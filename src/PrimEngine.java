@@ -0,0 +1,95 @@
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Headless Prim's algorithm on an indexed d-ary heap.
+ * Vertices enter the heap when they are first reached and have their key
+ * lowered in place, so a run is O(E log V). If the heap empties while
+ * vertices are left, the next unreached vertex seeds a new tree.
+ */
+public class PrimEngine {
+
+    public final GraphData graph;
+    public final int arity;
+
+    public IndexedDHeap Q;
+    public BitSet inTree;
+    public int[] parentEdge;
+
+    public PrimEngine(GraphData graph) {
+        this(graph, IndexedDHeap.arityFor(graph.vertexCount, graph.edgeCount));
+    }
+
+    public PrimEngine(GraphData graph, int arity) {
+        this.graph = graph;
+        this.arity = arity;
+    }
+
+    public MstResult run() {
+        return run(StepListener.NONE);
+    }
+
+    public MstResult run(StepListener listener) {
+        GraphData g = graph;
+        AlgorithmMetrics metrics = new AlgorithmMetrics("prim", g);
+        metrics.phase("adjacency");
+        AdjacencyIndex adj = g.adjacency();
+        int n = g.vertexCount;
+        long examined = 0, inserts = 0, polls = 0, decreases = 0;
+
+        Q = new IndexedDHeap(n, arity);
+        inTree = new BitSet(n);
+        parentEdge = new int[n];
+        Arrays.fill(parentEdge, -1);
+        MstResult mst = new MstResult(n - 1);
+
+        metrics.phase("search");
+        int seed = 0;
+        while (seed < n) {
+            Q.insert(seed, 0.0);
+            inserts++;
+
+            while (!Q.isEmpty()) {
+                int u = Q.poll(); // closest vertex to tree
+                polls++;
+                inTree.set(u);
+                listener.vertexExpanded(u);
+
+                // connect vertex to parent to form edge
+                if (parentEdge[u] != -1) {
+                    mst.add(parentEdge[u], g.weight[parentEdge[u]]);
+                    listener.edgeAccepted(parentEdge[u]);
+                }
+
+                // update the keys of all vertices adjacent to u that are not in the tree
+                examined += adj.degree(u);
+                for (int i = adj.begin(u); i < adj.end(u); i++) {
+                    int v = adj.target[i];
+                    if (inTree.get(v)) {
+                        continue;
+                    }
+                    int e = adj.edge[i];
+                    if (!Q.contains(v)) {
+                        Q.insert(v, g.weight[e]);
+                        inserts++;
+                        parentEdge[v] = e;
+                    } else if (Q.decreaseKey(v, g.weight[e])) {
+                        decreases++;
+                        parentEdge[v] = e;
+                    }
+                    listener.vertexReached(v, e);
+                }
+                listener.vertexFinished(u);
+            }
+            seed = inTree.nextClearBit(seed);
+        }
+
+        metrics.edgesExamined = examined;
+        metrics.verticesExpanded = polls;
+        metrics.heapInserts = inserts;
+        metrics.heapPolls = polls;
+        metrics.decreaseKeys = decreases;
+        mst.metrics = metrics.finish();
+        return mst;
+    }
+}
@@ -0,0 +1,70 @@
+import java.util.Arrays;
+
+/**
+ * Output of a search engine: the search tree as a parent edge per vertex
+ * and, if the target was found, the path from start to target.
+ */
+public class SearchResult {
+
+    public final GraphData graph;
+    public final int start, target;
+    public final int[] parentEdge; // -1 for the start and unreached vertices
+    public boolean found = false;
+    public int expanded = 0; // vertices taken off the queue / stack
+    public AlgorithmMetrics metrics; // counters of the run, null if the engine keeps none
+
+    public SearchResult(GraphData graph, int start, int target) {
+        this.graph = graph;
+        this.start = start;
+        this.target = target;
+        this.parentEdge = new int[graph.vertexCount];
+        Arrays.fill(parentEdge, -1);
+    }
+
+    /**
+     * @return - vertex ids from start to target, empty if target was not found
+     */
+    public int[] path() {
+        if (!found) {
+            return new int[0];
+        }
+        int length = 1;
+        for (int v = target; v != start; v = graph.other(parentEdge[v], v)) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int v = target, i = length - 1; i >= 0; i--) {
+            path[i] = v;
+            if (i > 0) {
+                v = graph.other(parentEdge[v], v);
+            }
+        }
+        return path;
+    }
+
+    /**
+     * @return - edge ids along path(), in the same order
+     */
+    public int[] pathEdges() {
+        int[] path = path();
+        int[] edges = new int[Math.max(0, path.length - 1)];
+        for (int i = 1; i < path.length; i++) {
+            edges[i - 1] = parentEdge[path[i]];
+        }
+        return edges;
+    }
+
+    /**
+     * @return - summed weight of pathEdges(), infinite if target was not found
+     */
+    public double pathWeight() {
+        if (!found) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double total = 0;
+        for (int e : pathEdges()) {
+            total += graph.weight[e];
+        }
+        return total;
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Animates a minimum weight search from graph.startNode to graph.desiredNode,
+ * with AStarEngine or BidirectionalDijkstraEngine, then draws the path found.
+ * The same query is run with BfsEngine to compare how much of the graph each expanded.
+ */
+public class ShortestPath extends AnimationWorker {
+
+    // use BidirectionalDijkstraEngine instead of AStarEngine
+    public boolean bidirectional;
+    public SearchResult result;
+    public SearchResult bfsResult;
+
+    public ShortestPath(Graph graph, boolean bidirectional) {
+        super(graph);
+        this.bidirectional = bidirectional;
+    }
+
+    // performs the search animation, then highlights the path
+    @Override
+    protected Boolean animate(StepListener steps) throws Exception {
+        int start = graph.startNode.id;
+        int target = graph.desiredNode.id;
+        if (bidirectional) {
+            result = new BidirectionalDijkstraEngine(graph.data).run(start, target, steps);
+        } else {
+            result = new AStarEngine(graph.data).run(start, target, steps);
+        }
+        bfsResult = new BfsEngine(graph.data).run(start, target);
+
+        for (int e : result.pathEdges()) {
+            steps.edgeAccepted(e);
+        }
+        return result.found;
+    }
+
+    @Override
+    public void vertexExpanded(int vertex) {
+        node(vertex).setColor(Graph.CURRENT_C);
+    }
+
+    @Override
+    public void vertexReached(int vertex, int viaEdge) {
+        node(vertex).setColor(Graph.HIGHLIGHT);
+    }
+
+    @Override
+    public void vertexFinished(int vertex) {
+        node(vertex).setColor(Graph.FINAL_C);
+    }
+
+    // FOUND DESIRED NODE
+    @Override
+    public void targetFound(int vertex, int viaEdge) {
+        node(vertex).setColor(Graph.CURRENT_C);
+    }
+
+    // edge on the shortest path
+    @Override
+    public void edgeAccepted(int edge) {
+        Edge e = edge(edge);
+        e.setColor(Graph.FINAL_C);
+        e.n1().setColor(Graph.CURRENT_C);
+        e.n2().setColor(Graph.CURRENT_C);
+    }
+
+    @Override
+    protected void done() {
+        if (Trace.INFO && result != null && bfsResult != null) {
+            Trace.log((bidirectional ? "Bidirectional Dijkstra" : "A*")
+                    + " expanded " + result.expanded + " vertices, path weight " + result.pathWeight()
+                    + "; BFS expanded " + bfsResult.expanded + ", path weight " + bfsResult.pathWeight());
+        }
+    }
+}
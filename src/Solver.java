@@ -0,0 +1,69 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Runs any of the headless engines by name, for code that picks the
+ * algorithm at run time (benchmarks, batch runs).
+ */
+public class Solver {
+
+    public static final String[] ALGORITHMS = {"kruskal", "filterKruskal", "externalKruskal", "euclidean", "prim", "boruvka", "spanningForest", "bfs", "parallelBfs", "dfs", "astar", "bidirectional", "biconnected"};
+
+    // sort memory of externalKruskal, spilled runs go to the system temp directory
+    public static long externalMemoryBudget = 64L << 20;
+
+    /**
+     * Runs an algorithm over the whole graph. Searches start at vertex 0;
+     * the bfs and dfs variants visit everything reachable from it, astar and bidirectional
+     * look for the minimum weight path to the last vertex.
+     * biconnected finds the bridges and articulation points of the whole graph.
+     * euclidean ignores the edges and spans the vertex positions, so it is
+     * meant for the point based kinds (knn, uniform).
+     * Every MstResult and SearchResult carries the run's AlgorithmMetrics, except
+     * externalKruskal and parallelBfs; euclidean's are those of its Kruskal over the candidate edges.
+     *
+     * @return - MstResult for the spanning tree algorithms, SearchResult for the searches,
+     *           the engine itself for biconnected
+     */
+    public static Object run(String algorithm, GraphData g) {
+        switch (algorithm) {
+            case "kruskal":
+                return new KruskalEngine(g).run();
+            case "filterKruskal":
+                return new FilterKruskalEngine(g).run();
+            case "externalKruskal":
+                try {
+                    Path tempDir = Paths.get(System.getProperty("java.io.tmpdir"));
+                    return new ExternalKruskal(g.vertexCount, externalMemoryBudget, tempDir).run(EdgeStream.of(g));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            case "euclidean":
+                return new EuclideanMst(g).run();
+            case "prim":
+                return new PrimEngine(g).run();
+            case "boruvka":
+                return new BoruvkaEngine(g).run();
+            case "spanningForest":
+                return new SpanningForestEngine(g).run();
+            case "bfs":
+                return new BfsEngine(g).run(0, -1);
+            case "parallelBfs":
+                return new ParallelBfsEngine(g).run(0, -1);
+            case "dfs":
+                return new DfsEngine(g).run(0, -1);
+            case "astar":
+                return new AStarEngine(g).run(0, g.vertexCount - 1);
+            case "bidirectional":
+                return new BidirectionalDijkstraEngine(g).run(0, g.vertexCount - 1);
+            case "biconnected":
+                BiconnectivityEngine biconnectivity = new BiconnectivityEngine(g);
+                biconnectivity.run();
+                return biconnectivity;
+            default:
+                throw new IllegalArgumentException("unknown algorithm " + algorithm);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+import java.util.ArrayList;
+
+/**
+ * Animates SpanningForestEngine: the minimum spanning tree of every
+ * connected component, drawn one component after another.
+ */
+public class SpanningForest extends AnimationWorker {
+
+    public SpanningForestEngine engine;
+    public ForestResult forest;
+
+    public ArrayList<Edge> MST;
+
+    SpanningForest(Graph graph) {
+        super(graph);
+        MST = new ArrayList<>();
+    }
+
+    /**
+     * Called when this class is executed
+     *
+     * @return - Minimum Spanning forest of graph
+     */
+    @Override
+    protected Boolean animate(StepListener steps) throws Exception {
+        engine = new SpanningForestEngine(graph.data);
+        forest = engine.run();
+        // the components are solved concurrently, so replay the trees from here in order
+        for (int i = 0; i < forest.edgeCount; i++) {
+            steps.edgeAccepted(forest.edges[i]);
+        }
+        return true;
+    }
+
+    // highlights edge as part of the forest
+    @Override
+    public void edgeAccepted(int edge) {
+        Edge e = edge(edge);
+        MST.add(e);
+        e.setColor(Graph.FINAL_C);
+        e.n1().setColor(Graph.FINAL_C);
+        e.n2().setColor(Graph.FINAL_C);
+    }
+
+    @Override
+    protected void done() {
+        if (Trace.INFO && forest != null) {
+            Trace.log(forest + ", edges considered = " + engine.consideredEdges);
+            for (int k = 0; k < forest.treeCount(); k++) {
+                if (forest.components.size[k] > 1) {
+                    Trace.log("  tree " + k + ": " + forest.components.size[k]
+                            + " vertices, weight = " + forest.treeWeight[k]);
+                }
+            }
+        }
+    }
+
+    public ArrayList<Edge> getMST() {
+        return this.MST;
+    }
+
+}
@@ -0,0 +1,153 @@
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Headless minimum spanning forest, one Kruskal run per connected component.
+ *
+ * ConnectedComponents labels the vertices first, then every vertex gets an
+ * index within its component and the edges are grouped by component with a
+ * counting sort. Each component sorts only its own edges and runs Kruskal on
+ * a union-find over its own vertices, so the components are independent and
+ * run in parallel, in chunks balanced on their edge counts. A component of k
+ * vertices stops as soon as it has accepted k - 1 edges, and as its edges
+ * come out of an incremental quicksort the heavy ones after that point are
+ * never sorted. Single vertices cost nothing at all.
+ */
+public class SpanningForestEngine {
+
+    public final GraphData graph;
+    public final ForkJoinPool pool;
+
+    public ConnectedComponents components;
+    public long consideredEdges = 0; // edges looked at before the trees were complete
+
+    public SpanningForestEngine(GraphData graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    public SpanningForestEngine(GraphData graph, ForkJoinPool pool) {
+        this.graph = graph;
+        this.pool = pool;
+    }
+
+    public ForestResult run() {
+        GraphData g = graph;
+        int n = g.vertexCount;
+        int m = g.edgeCount;
+        AlgorithmMetrics metrics = new AlgorithmMetrics("spanningForest", g);
+        metrics.phase("components");
+        components = new ConnectedComponents(g, pool).run();
+        int c = components.count;
+        int[] label = components.label;
+        ForestResult forest = new ForestResult(components);
+
+        metrics.phase("group");
+        // each vertex's index within its component, for the per component union-finds
+        int[] localId = new int[n];
+        int[] fill = new int[c];
+        for (int v = 0; v < n; v++) {
+            localId[v] = fill[label[v]]++;
+        }
+
+        // edges by component, self loops dropped
+        int[] edgeStart = new int[c + 1];
+        for (int e = 0; e < m; e++) {
+            if (g.edgeU[e] != g.edgeV[e]) {
+                edgeStart[label[g.edgeU[e]] + 1]++;
+            }
+        }
+        for (int k = 0; k < c; k++) {
+            edgeStart[k + 1] += edgeStart[k];
+        }
+        int[] ids = new int[edgeStart[c]];
+        System.arraycopy(edgeStart, 0, fill, 0, c);
+        for (int e = 0; e < m; e++) {
+            if (g.edgeU[e] != g.edgeV[e]) {
+                ids[fill[label[g.edgeU[e]]]++] = e;
+            }
+        }
+
+        // a tree of k vertices has k - 1 edges, so every tree's slot in the result is known up front
+        for (int k = 0; k < c; k++) {
+            forest.treeStart[k + 1] = forest.treeStart[k] + components.size[k] - 1;
+        }
+
+        // chunks of consecutive components with about the same number of edges each,
+        // so one large component gets a thread to itself instead of a share of a fixed count
+        int target = Math.max(1, edgeStart[c] / (pool.getParallelism() * 8));
+        int[] chunkStart = new int[Math.max(c, 1) + 1];
+        int chunks = 0;
+        for (int k = 1; k < c; k++) {
+            if (edgeStart[k] - edgeStart[chunkStart[chunks]] >= target) {
+                chunkStart[++chunks] = k;
+            }
+        }
+        chunkStart[++chunks] = c;
+
+        metrics.phase("kruskal");
+        long[] considered = new long[c];
+        // union-find counters per chunk
+        long[] finds = new long[chunks], findSteps = new long[chunks];
+        int[] findDepth = new int[chunks];
+        ParallelFor.run(pool, 0, chunks, 1, (from, to) -> {
+            for (int j = from; j < to; j++) {
+                for (int k = chunkStart[j]; k < chunkStart[j + 1]; k++) {
+                    if (components.size[k] == 1) {
+                        continue;
+                    }
+                    UnionFind sets = new UnionFind(components.size[k]);
+                    considered[k] = kruskal(k, ids, edgeStart, localId, sets, forest);
+                    finds[j] += sets.findCalls;
+                    findSteps[j] += sets.findSteps;
+                    findDepth[j] = Math.max(findDepth[j], sets.maxFindDepth);
+                }
+            }
+        });
+
+        forest.edgeCount = forest.treeStart[c];
+        consideredEdges = 0;
+        for (int k = 0; k < c; k++) {
+            forest.weight += forest.treeWeight[k];
+            consideredEdges += considered[k];
+        }
+        metrics.edgesExamined = consideredEdges;
+        for (int j = 0; j < chunks; j++) {
+            metrics.finds += finds[j];
+            metrics.findSteps += findSteps[j];
+            metrics.maxFindDepth = Math.max(metrics.maxFindDepth, findDepth[j]);
+        }
+        metrics.unions = forest.edgeCount;
+        forest.metrics = metrics.finish();
+        return forest;
+    }
+
+    /**
+     * Kruskal over one component's edges on sets, a union-find of its vertices,
+     * writing its tree into the forest.
+     *
+     * @return - number of edges looked at
+     */
+    private long kruskal(int k, int[] ids, int[] edgeStart, int[] localId, UnionFind sets, ForestResult forest) {
+        GraphData g = graph;
+        int needed = components.size[k] - 1;
+        // only the prefix of the edges that the tree needs ever gets sorted
+        EdgeSort.Incremental order = new EdgeSort.Incremental(ids, edgeStart[k], edgeStart[k + 1], g.weight);
+
+        int out = forest.treeStart[k];
+        int accepted = 0;
+        double weight = 0;
+        long considered = 0;
+        while (accepted < needed) {
+            int e = order.next();
+            considered++;
+            int root1 = sets.find(localId[g.edgeU[e]]);
+            int root2 = sets.find(localId[g.edgeV[e]]);
+            if (root1 != root2) {
+                sets.link(root1, root2);
+                forest.edges[out + accepted++] = e;
+                weight += g.weight[e];
+            }
+        }
+        forest.treeWeight[k] = weight;
+        return considered;
+    }
+}
@@ -0,0 +1,242 @@
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Uniform grid over the vertex positions of a GraphData, for nearest node,
+ * range and k-nearest-neighbour queries.
+ *
+ * When the grid is (re)built, the points are counting sorted by cell and their
+ * coordinates copied next to each other, so a query reads each cell as one
+ * contiguous run. Points inserted after that go on a per cell linked list
+ * (head per cell, next per point) without allocating. The grid is rebuilt with
+ * about two points per cell once the linked points outnumber the packed ones
+ * or a point lands outside it, which keeps inserts amortized O(1) and queries
+ * close to O(1) for evenly spread points. Queries only read, so several
+ * threads may query at once.
+ */
+public class SpatialGrid {
+
+    private static final int POINTS_PER_CELL = 2;
+
+    public final GraphData points;
+
+    public double minX, minY, cellSize = 1;
+    public int cols = 1, rows = 1;
+    public int count = 0;
+
+    // packed points: cell c holds packedIds[cellStart[c] .. cellStart[c+1]-1]
+    private int[] cellStart = {0, 0};
+    private int[] packedIds = new int[0];
+    private double[] packedX = new double[0], packedY = new double[0];
+    private int packedCount = 0;
+
+    // points inserted since the last rebuild
+    private int[] head = {-1};
+    private int[] next = new int[16];
+
+    public SpatialGrid(GraphData points) {
+        this.points = points;
+        count = points.vertexCount;
+        next = new int[Math.max(16, count)];
+        if (count > 0) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Adds vertex id, whose position must already be in points.
+     */
+    public void insert(int id) {
+        if (id >= next.length) {
+            next = Arrays.copyOf(next, Math.max(id + 1, 2 * next.length));
+        }
+        count = Math.max(count, id + 1);
+        if (count - packedCount > Math.max(packedCount, 16) || !inside(points.x[id], points.y[id])) {
+            rebuild();
+        } else {
+            int cell = cell(points.x[id], points.y[id]);
+            next[id] = head[cell];
+            head[cell] = id;
+        }
+    }
+
+    private boolean inside(double x, double y) {
+        return x >= minX && y >= minY && x < minX + cols * cellSize && y < minY + rows * cellSize;
+    }
+
+    private void rebuild() {
+        double loX = Double.POSITIVE_INFINITY, loY = Double.POSITIVE_INFINITY;
+        double hiX = Double.NEGATIVE_INFINITY, hiY = Double.NEGATIVE_INFINITY;
+        for (int v = 0; v < count; v++) {
+            loX = Math.min(loX, points.x[v]);
+            loY = Math.min(loY, points.y[v]);
+            hiX = Math.max(hiX, points.x[v]);
+            hiY = Math.max(hiY, points.y[v]);
+        }
+        // leave room to grow so points just outside don't force another rebuild
+        double width = Math.max(hiX - loX, 1), height = Math.max(hiY - loY, 1);
+        loX -= width / 8;
+        loY -= height / 8;
+        width *= 1.25;
+        height *= 1.25;
+
+        double cells = Math.max(1, (double) count / POINTS_PER_CELL);
+        cellSize = Math.max(Math.sqrt(width * height / cells), Double.MIN_NORMAL);
+        cols = (int) Math.min(Math.ceil(width / cellSize) + 1, 1 << 15);
+        rows = (int) Math.min(Math.ceil(height / cellSize) + 1, 1 << 15);
+        cellSize = Math.max(width / (cols - 1), height / (rows - 1));
+        minX = loX;
+        minY = loY;
+
+        // counting sort of the points by cell
+        int cellCount = cols * rows;
+        int[] start = new int[cellCount + 1];
+        int[] cellOf = new int[count];
+        for (int v = 0; v < count; v++) {
+            cellOf[v] = cell(points.x[v], points.y[v]);
+            start[cellOf[v] + 1]++;
+        }
+        for (int c = 0; c < cellCount; c++) {
+            start[c + 1] += start[c];
+        }
+        int[] fill = Arrays.copyOf(start, cellCount);
+        packedIds = new int[count];
+        packedX = new double[count];
+        packedY = new double[count];
+        for (int v = 0; v < count; v++) {
+            int i = fill[cellOf[v]]++;
+            packedIds[i] = v;
+            packedX[i] = points.x[v];
+            packedY[i] = points.y[v];
+        }
+        cellStart = start;
+        packedCount = count;
+
+        head = new int[cellCount];
+        Arrays.fill(head, -1);
+    }
+
+    private int cell(double x, double y) {
+        return row(y) * cols + col(x);
+    }
+
+    private int col(double x) {
+        return Math.max(0, Math.min(cols - 1, (int) ((x - minX) / cellSize)));
+    }
+
+    private int row(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) ((y - minY) / cellSize)));
+    }
+
+    /**
+     * @return - closest vertex to (x, y), -1 if there are none
+     */
+    public int nearest(double x, double y) {
+        int[] id = new int[1];
+        double[] dist = new double[1];
+        return kNearest(x, y, 1, -1, id, dist) == 1 ? id[0] : -1;
+    }
+
+    /**
+     * @return - closest vertex within radius of (x, y), -1 if there is none
+     */
+    public int nearest(double x, double y, double radius) {
+        int[] id = new int[1];
+        double[] dist = new double[1];
+        if (kNearest(x, y, 1, -1, id, dist) == 1 && dist[0] <= radius * radius) {
+            return id[0];
+        }
+        return -1;
+    }
+
+    /**
+     * Calls visitor with every vertex inside the rectangle, in no particular order.
+     */
+    public void forEachInRange(double loX, double loY, double hiX, double hiY, IntConsumer visitor) {
+        if (count == 0) {
+            return;
+        }
+        int c0 = col(loX), c1 = col(hiX), r0 = row(loY), r1 = row(hiY);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * cols + c;
+                for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                    double px = packedX[i], py = packedY[i];
+                    if (px >= loX && px <= hiX && py >= loY && py <= hiY) {
+                        visitor.accept(packedIds[i]);
+                    }
+                }
+                for (int v = head[cell]; v != -1; v = next[v]) {
+                    double px = points.x[v], py = points.y[v];
+                    if (px >= loX && px <= hiX && py >= loY && py <= hiY) {
+                        visitor.accept(v);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the k vertices closest to (x, y), closest first.
+     * Searches rings of cells outward and stops once no unsearched cell can be closer.
+     *
+     * @param exclude - vertex to leave out (usually the query vertex), or -1
+     * @param outIds, outDist - at least k long, receive the ids and squared distances
+     * @return - number of vertices found, less than k only if there aren't enough
+     */
+    public int kNearest(double x, double y, int k, int exclude, int[] outIds, double[] outDist) {
+        if (count == 0 || k <= 0) {
+            return 0;
+        }
+        int cx = col(x), cy = row(y);
+        int found = 0;
+        int maxRing = Math.max(Math.max(cx, cols - 1 - cx), Math.max(cy, rows - 1 - cy));
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int r = Math.max(0, cy - ring); r <= Math.min(rows - 1, cy + ring); r++) {
+                // whole row on the top and bottom of the ring, only the two ends in between
+                boolean edgeRow = r == cy - ring || r == cy + ring;
+                int step = edgeRow || ring == 0 ? 1 : 2 * ring;
+                for (int c = cx - ring; c <= cx + ring; c += step) {
+                    if (c < 0 || c >= cols) continue;
+                    int cell = r * cols + c;
+                    for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                        int v = packedIds[i];
+                        if (v == exclude) continue;
+                        double dx = packedX[i] - x, dy = packedY[i] - y;
+                        found = offer(v, dx * dx + dy * dy, found, k, outIds, outDist);
+                    }
+                    for (int v = head[cell]; v != -1; v = next[v]) {
+                        if (v == exclude) continue;
+                        double dx = points.x[v] - x, dy = points.y[v] - y;
+                        found = offer(v, dx * dx + dy * dy, found, k, outIds, outDist);
+                    }
+                }
+            }
+            // every cell outside this ring is at least ring * cellSize away
+            double bound = ring * cellSize;
+            if (found == k && outDist[k - 1] <= bound * bound) {
+                break;
+            }
+        }
+        return found;
+    }
+
+    // insertion into the sorted result, keeping the k closest
+    private static int offer(int v, double d, int found, int k, int[] outIds, double[] outDist) {
+        if (found == k && d >= outDist[k - 1]) {
+            return found;
+        }
+        if (found < k) {
+            found++;
+        }
+        int i = found - 1;
+        while (i > 0 && outDist[i - 1] > d) {
+            outIds[i] = outIds[i - 1];
+            outDist[i] = outDist[i - 1];
+            i--;
+        }
+        outIds[i] = v;
+        outDist[i] = d;
+        return found;
+    }
+}
@@ -0,0 +1,211 @@
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded ring of step events between one engine thread and the EDT.
+ *
+ * The engine hands this buffer to its run() as the StepListener, so every
+ * callback becomes a typed event (kind + two ids) stored in primitive arrays.
+ * The EDT replays them onto the animation's own listener methods at whatever
+ * rate it likes. When the ring is full the engine blocks on a condition until
+ * the EDT makes room, so a paused animation costs no CPU and the engine can
+ * never run more than capacity steps ahead of the screen.
+ */
+public class StepEventBuffer implements StepListener {
+
+    public static final byte EDGE_CONSIDERED = 0;
+    public static final byte EDGE_ACCEPTED = 1;
+    public static final byte EDGE_REJECTED = 2;
+    public static final byte VERTEX_EXPANDED = 3;
+    public static final byte VERTEX_REACHED = 4;
+    public static final byte VERTEX_FINISHED = 5;
+    public static final byte TARGET_FOUND = 6;
+
+    public final int capacity;
+    private final int mask;
+    private final byte[] kind;
+    private final int[] first;
+    private final int[] second;
+
+    // head is only written by the consumer and tail only by the producer
+    private volatile long head = 0;
+    private volatile long tail = 0;
+    private volatile boolean closed = false;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private volatile boolean producerWaiting = false;
+
+    // how often the producer found the ring full
+    public long producerBlocks = 0;
+
+    /**
+     * @param capacity - rounded up to a power of two
+     */
+    public StepEventBuffer(int capacity) {
+        int c = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.capacity = c;
+        this.mask = c - 1;
+        this.kind = new byte[c];
+        this.first = new int[c];
+        this.second = new int[c];
+    }
+
+    public int size() {
+        return (int) (tail - head);
+    }
+
+    public boolean isEmpty() {
+        return head == tail;
+    }
+
+    /**
+     * Called by the producer once it will not add any more events.
+     */
+    public void close() {
+        closed = true;
+    }
+
+    /**
+     * @return - true once the producer is done and every event was replayed
+     */
+    public boolean isDrained() {
+        return closed && head == tail;
+    }
+
+    /**
+     * Appends one event, blocking while the ring is full.
+     * Runs on the engine thread.
+     */
+    public void put(byte k, int a, int b) {
+        long t = tail;
+        if (t - head == capacity) {
+            awaitRoom(t);
+        }
+        int i = (int) t & mask;
+        kind[i] = k;
+        first[i] = a;
+        second[i] = b;
+        tail = t + 1; // publishes the slot to the consumer
+    }
+
+    private void awaitRoom(long t) {
+        producerBlocks++;
+        lock.lock();
+        try {
+            // set the flag before re-checking head, so a replay() that misses it has already made room
+            producerWaiting = true;
+            while (t - head == capacity) {
+                notFull.await();
+            }
+        } catch (InterruptedException e) {
+            // listener methods can't throw InterruptedException, so cancel(true) ends the engine run this way
+            Thread.currentThread().interrupt();
+            throw new CancellationException("animation cancelled");
+        } finally {
+            producerWaiting = false;
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replays up to max events onto target, in the order they were put.
+     * Runs on the consumer thread.
+     *
+     * @param target - listener whose methods are called for each event
+     * @param max - most events to replay
+     * @param deadline - System.nanoTime() after which to stop early
+     * @return - number of events replayed
+     */
+    public int replay(StepListener target, int max, long deadline) {
+        long h = head;
+        long available = tail - h;
+        int n = (int) Math.min(available, max);
+        int done = 0;
+        while (done < n) {
+            int i = (int) (h + done) & mask;
+            dispatch(target, kind[i], first[i], second[i]);
+            done++;
+            // check the clock every so often so a huge backlog can't freeze the gui
+            if ((done & 255) == 0 && System.nanoTime() > deadline) {
+                break;
+            }
+        }
+        if (done > 0) {
+            head = h + done;
+            if (producerWaiting) {
+                lock.lock();
+                try {
+                    notFull.signal();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+        return done;
+    }
+
+    private static void dispatch(StepListener target, byte k, int a, int b) {
+        switch (k) {
+            case EDGE_CONSIDERED:
+                target.edgeConsidered(a);
+                break;
+            case EDGE_ACCEPTED:
+                target.edgeAccepted(a);
+                break;
+            case EDGE_REJECTED:
+                target.edgeRejected(a);
+                break;
+            case VERTEX_EXPANDED:
+                target.vertexExpanded(a);
+                break;
+            case VERTEX_REACHED:
+                target.vertexReached(a, b);
+                break;
+            case VERTEX_FINISHED:
+                target.vertexFinished(a);
+                break;
+            case TARGET_FOUND:
+                target.targetFound(a, b);
+                break;
+            default:
+                throw new IllegalStateException("unknown step event " + k);
+        }
+    }
+
+    @Override
+    public void edgeConsidered(int edge) {
+        put(EDGE_CONSIDERED, edge, -1);
+    }
+
+    @Override
+    public void edgeAccepted(int edge) {
+        put(EDGE_ACCEPTED, edge, -1);
+    }
+
+    @Override
+    public void edgeRejected(int edge) {
+        put(EDGE_REJECTED, edge, -1);
+    }
+
+    @Override
+    public void vertexExpanded(int vertex) {
+        put(VERTEX_EXPANDED, vertex, -1);
+    }
+
+    @Override
+    public void vertexReached(int vertex, int viaEdge) {
+        put(VERTEX_REACHED, vertex, viaEdge);
+    }
+
+    @Override
+    public void vertexFinished(int vertex) {
+        put(VERTEX_FINISHED, vertex, -1);
+    }
+
+    @Override
+    public void targetFound(int vertex, int viaEdge) {
+        put(TARGET_FOUND, vertex, viaEdge);
+    }
+}
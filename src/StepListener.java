@@ -0,0 +1,30 @@
+/**
+ * Callback the algorithm engines report their progress to.
+ * Every method is optional, so animations only override what they draw.
+ * Ids refer to the vertices and edges of the GraphData being solved.
+ */
+public interface StepListener {
+
+    StepListener NONE = new StepListener() {};
+
+    // an edge is about to be tested (Kruskal)
+    default void edgeConsidered(int edge) {}
+
+    // an edge joined the spanning tree
+    default void edgeAccepted(int edge) {}
+
+    // an edge was tested and left out of the spanning tree
+    default void edgeRejected(int edge) {}
+
+    // a vertex was taken off the queue / stack and is being worked on
+    default void vertexExpanded(int vertex) {}
+
+    // a vertex was reached from the current vertex over viaEdge
+    default void vertexReached(int vertex, int viaEdge) {}
+
+    // all of the current vertex's neighbours have been looked at
+    default void vertexFinished(int vertex) {}
+
+    // the search target was reached over viaEdge (-1 if it is the start)
+    default void targetFound(int vertex, int viaEdge) {}
+}
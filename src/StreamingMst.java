@@ -0,0 +1,115 @@
+import java.io.IOException;
+
+/**
+ * Semi-streaming minimum spanning forest.
+ *
+ * Edges arrive one at a time and only the current spanning forest is kept,
+ * so memory is O(V) no matter how long the stream is. Each tree edge is a
+ * node in a LinkCutTree between its two vertex nodes. By the cycle property
+ * a new edge that closes a cycle either is the heaviest edge on it and is
+ * rejected, or it replaces the heaviest tree edge on the path it closes.
+ * Each edge costs O(log V) amortized.
+ */
+public class StreamingMst {
+
+    public final int vertexCount;
+    public final LinkCutTree tree;
+
+    // endpoints of the tree edge held by each link-cut node, indexed by node id
+    private int[] edgeU, edgeV;
+    private boolean[] live;
+
+    public int edgeCount = 0;
+    public double weight = 0;
+
+    public long offered = 0;
+    public long rejected = 0;
+    public long replaced = 0;
+
+    public StreamingMst(int vertexCount) {
+        this.vertexCount = vertexCount;
+        // vertices use nodes 0 .. V-1, tree edges at most V-1 more
+        int capacity = Math.max(1, 2 * vertexCount);
+        this.tree = new LinkCutTree(capacity);
+        this.edgeU = new int[capacity];
+        this.edgeV = new int[capacity];
+        this.live = new boolean[capacity];
+        for (int v = 0; v < vertexCount; v++) {
+            tree.newNode(Double.NEGATIVE_INFINITY);
+        }
+    }
+
+    /**
+     * Feeds one edge into the forest.
+     *
+     * @return - true if the edge is in the forest afterwards
+     */
+    public boolean offer(int u, int v, double w) {
+        offered++;
+        if (u == v) {
+            rejected++;
+            return false;
+        }
+        int heaviest = tree.pathMaxIfConnected(u, v);
+        if (heaviest != -1) {
+            if (tree.value[heaviest] <= w) {
+                rejected++;
+                return false;
+            }
+            remove(heaviest);
+            replaced++;
+        }
+        int e = tree.newNode(w);
+        edgeU[e] = u;
+        edgeV[e] = v;
+        live[e] = true;
+        tree.link(u, e);
+        tree.link(e, v);
+        edgeCount++;
+        weight += w;
+        return true;
+    }
+
+    private void remove(int e) {
+        tree.cut(edgeU[e], e);
+        tree.cut(e, edgeV[e]);
+        tree.free(e);
+        live[e] = false;
+        edgeCount--;
+        weight -= tree.value[e];
+    }
+
+    /**
+     * Feeds every remaining edge of the stream.
+     *
+     * @return - number of edges read
+     */
+    public long consume(EdgeStream edges) throws IOException {
+        long count = 0;
+        while (edges.next()) {
+            offer(edges.u(), edges.v(), edges.weight());
+            count++;
+        }
+        return count;
+    }
+
+    public boolean isSpanningTree() {
+        return edgeCount == vertexCount - 1;
+    }
+
+    /**
+     * @return - copy of the current forest as a graph on the same vertex ids
+     */
+    public GraphData currentForest() {
+        GraphData forest = new GraphData(vertexCount, edgeCount);
+        for (int v = 0; v < vertexCount; v++) {
+            forest.addVertex(0, 0);
+        }
+        for (int e = vertexCount; e < live.length; e++) {
+            if (live[e]) {
+                forest.addEdge(edgeU[e], edgeV[e], tree.value[e]);
+            }
+        }
+        return forest;
+    }
+}
@@ -0,0 +1,116 @@
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Diagnostic output that costs nothing when it is turned off.
+ *
+ * The level is read once from -Dmstdemo.trace=off|info|debug (info by
+ * default) into static final flags, which the JIT treats as constants, so a
+ * trace point written as
+ *
+ *     if (Trace.DEBUG) {
+ *         Trace.log("state = " + state);
+ *     }
+ *
+ * is compiled away entirely, message building included, when debug is off.
+ * Enabled messages go into a lock-free ring and a daemon thread writes
+ * them to stdout in batches, so the caller never waits on I/O. If the ring
+ * is full the message is dropped and counted rather than blocking; the
+ * flusher is woken early when it fills up past half.
+ */
+public class Trace {
+
+    // 0 = off, 1 = info (summaries of runs), 2 = debug (every state change, node and edge)
+    public static final int LEVEL = parseLevel(System.getProperty("mstdemo.trace", "info"));
+    public static final boolean INFO = LEVEL >= 1;
+    public static final boolean DEBUG = LEVEL >= 2;
+
+    private static final int CAPACITY = 1 << 13; // power of two
+    private static final long FLUSH_INTERVAL_NANOS = 50_000_000L;
+
+    // slot i % CAPACITY holds message i until the flusher takes it, null when free or not yet written
+    private static final AtomicReferenceArray<String> ring = new AtomicReferenceArray<>(CAPACITY);
+    private static final AtomicLong tail = new AtomicLong(); // next message to claim
+    private static volatile long head = 0;                   // next message to flush
+    private static final AtomicLong dropped = new AtomicLong();
+    private static Thread flusher;
+
+    static {
+        if (LEVEL > 0) {
+            flusher = new Thread(Trace::flushLoop, "trace-flush");
+            flusher.setDaemon(true);
+            flusher.start();
+            // messages still in the ring at exit are written out by the hook
+            Runtime.getRuntime().addShutdownHook(new Thread(Trace::flush, "trace-exit"));
+        }
+    }
+
+    /**
+     * Queues one line. Call it from behind a level flag so the message isn't built when tracing is off.
+     */
+    public static void log(String message) {
+        while (true) {
+            long t = tail.get();
+            if (t - head >= CAPACITY) {
+                dropped.incrementAndGet();
+                return;
+            }
+            // the slot is free: the flusher clears it before moving head past it
+            if (tail.compareAndSet(t, t + 1)) {
+                ring.set((int) t & (CAPACITY - 1), message);
+                // a burst shouldn't have to wait out the flush interval
+                if (t - head == CAPACITY / 2) {
+                    LockSupport.unpark(flusher);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes out everything queued so far. Only the flusher thread and the exit hook call this.
+     */
+    private static synchronized void flush() {
+        StringBuilder batch = new StringBuilder();
+        long h = head;
+        while (h < tail.get()) {
+            int slot = (int) h & (CAPACITY - 1);
+            String message = ring.get(slot);
+            if (message == null) {
+                break; // claimed but not written yet, it goes out with the next batch
+            }
+            ring.set(slot, null);
+            batch.append(message).append('\n');
+            h++;
+        }
+        head = h;
+        long lost = dropped.getAndSet(0);
+        if (lost > 0) {
+            batch.append("trace: ").append(lost).append(" messages dropped\n");
+        }
+        if (batch.length() > 0) {
+            System.out.print(batch);
+            System.out.flush();
+        }
+    }
+
+    private static void flushLoop() {
+        while (true) {
+            flush();
+            LockSupport.parkNanos(FLUSH_INTERVAL_NANOS);
+        }
+    }
+
+    private static int parseLevel(String level) {
+        switch (level.toLowerCase(Locale.ROOT)) {
+            case "off":
+                return 0;
+            case "debug":
+                return 2;
+            default:
+                return 1;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Disjoint sets over dense int ids 0 .. size-1.
+ * Find uses path halving and union merges by rank, so both are
+ * effectively constant time and nothing is boxed or recursive.
+ */
+public class UnionFind {
+
+    public int[] parent;
+    public byte[] rank;
+    public int sets;
+
+    // Counters to see how deep the trees get during a run
+    public long findCalls = 0;
+    public long findSteps = 0; // parent links followed over all finds
+    public int maxFindDepth = 0;
+
+    public UnionFind(int size) {
+        parent = new int[size];
+        rank = new byte[size];
+        sets = size;
+        for (int i = 0; i < size; i++) {
+            parent[i] = i;
+        }
+    }
+
+    /**
+     * @param x - element to look up
+     * @return - root of the set containing x
+     */
+    public int find(int x) {
+        int depth = 0;
+        while (parent[x] != x) {
+            // path halving: point x at its grandparent and jump there
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+            depth++;
+        }
+        findCalls++;
+        findSteps += depth;
+        if (depth > maxFindDepth) {
+            maxFindDepth = depth;
+        }
+        return x;
+    }
+
+    /**
+     * Find without path halving or counting. It never writes, so several
+     * threads may call it at once as long as nobody is merging sets.
+     */
+    public int root(int x) {
+        while (parent[x] != x) {
+            x = parent[x];
+        }
+        return x;
+    }
+
+    /**
+     * Merges the sets containing a and b.
+     *
+     * @return - false if a and b were already in the same set
+     */
+    public boolean union(int a, int b) {
+        int root1 = find(a);
+        int root2 = find(b);
+        if (root1 == root2) {
+            return false;
+        }
+        link(root1, root2);
+        return true;
+    }
+
+    /**
+     * Combine two distinct roots by hanging the lower ranked tree under the other.
+     */
+    public void link(int root1, int root2) {
+        if (rank[root1] > rank[root2]) {
+            parent[root2] = root1;
+        } else if (rank[root1] < rank[root2]) {
+            parent[root1] = root2;
+        } else {
+            parent[root1] = root2;
+            rank[root2]++;
+        }
+        sets--;
+    }
+
+    public boolean connected(int a, int b) {
+        return find(a) == find(b);
+    }
+
+    public double averageFindDepth() {
+        return findCalls == 0 ? 0 : (double) findSteps / findCalls;
+    }
+}
@@ -0,0 +1,136 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Random inserts, deletes and reweights on a DynamicMst, driven the way
+ * Graph drives it (removing an edge moves the last one into its id), and
+ * checked after every step against Kruskal run from scratch.
+ */
+class DynamicMstTest {
+
+    static final int N = 40;
+
+    // reference edge list, ids 0 .. m-1 like GraphData's
+    int[] u = new int[16], v = new int[16];
+    double[] w = new double[16];
+    int m = 0;
+
+    @Test
+    void matchesKruskal() {
+        // few distinct weights so ties come up all the time
+        run(new Random(11), 20000, 10);
+    }
+
+    @Test
+    void matchesKruskalWithDistinctWeights() {
+        run(new Random(12), 20000, 1 << 20);
+    }
+
+    @Test
+    void deletingEveryTreeEdgeFindsTheReplacements() {
+        Random random = new Random(13);
+        DynamicMst mst = new DynamicMst();
+        for (int i = 0; i < N; i++) {
+            mst.addVertex();
+        }
+        for (int i = 0; i < 6 * N; i++) {
+            insert(mst, random.nextInt(N), random.nextInt(N), random.nextInt(1000));
+        }
+        check(mst, -1);
+        // always hit the tree, so every step needs a replacement search
+        while (mst.treeEdgeCount > 0) {
+            int[] tree = mst.treeEdges();
+            delete(mst, tree[random.nextInt(tree.length)]);
+            check(mst, m);
+        }
+        assertEquals(0, mst.treeWeight, 1e-9);
+    }
+
+    private void run(Random random, int steps, int weights) {
+        DynamicMst mst = new DynamicMst();
+        for (int i = 0; i < N; i++) {
+            mst.addVertex();
+        }
+        for (int step = 0; step < steps; step++) {
+            // grow to about 3N edges, then hover there
+            int op = random.nextInt(5);
+            if (op == 0 || m < 3 * N) {
+                insert(mst, random.nextInt(N), random.nextInt(N), random.nextInt(weights));
+            } else if (op <= 2) {
+                int e = random.nextInt(m);
+                w[e] = random.nextInt(weights);
+                mst.reweight(e, w[e]);
+            } else {
+                delete(mst, random.nextInt(m));
+            }
+            check(mst, step);
+        }
+    }
+
+    private void insert(DynamicMst mst, int a, int b, double weight) {
+        if (m == u.length) {
+            u = Arrays.copyOf(u, 2 * m);
+            v = Arrays.copyOf(v, 2 * m);
+            w = Arrays.copyOf(w, 2 * m);
+        }
+        u[m] = a;
+        v[m] = b;
+        w[m] = weight;
+        mst.insert(m, a, b, weight);
+        m++;
+    }
+
+    // same steps as Graph.removeEdge
+    private void delete(DynamicMst mst, int e) {
+        mst.delete(e);
+        int last = --m;
+        if (last != e) {
+            u[e] = u[last];
+            v[e] = v[last];
+            w[e] = w[last];
+            mst.moveEdge(last, e);
+        }
+    }
+
+    private void check(DynamicMst mst, int step) {
+        // Kruskal from scratch
+        Integer[] order = new Integer[m];
+        for (int e = 0; e < m; e++) {
+            order[e] = e;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(w[a], w[b]));
+        UnionFind sets = new UnionFind(N);
+        double weight = 0;
+        int count = 0;
+        for (int e : order) {
+            if (sets.union(u[e], v[e])) {
+                weight += w[e];
+                count++;
+            }
+        }
+        assertEquals(weight, mst.treeWeight, 1e-6, "tree weight at step " + step);
+        assertEquals(count, mst.treeEdgeCount, "tree edge count at step " + step);
+
+        // the reported edges are a spanning forest of the current graph with that weight
+        int[] tree = mst.treeEdges();
+        assertEquals(count, tree.length, "treeEdges() at step " + step);
+        UnionFind forest = new UnionFind(N);
+        double sum = 0;
+        for (int e : tree) {
+            assertTrue(e >= 0 && e < m, "tree edge id at step " + step);
+            assertTrue(mst.isTreeEdge(e), "isTreeEdge at step " + step);
+            assertTrue(forest.union(u[e], v[e]), "cycle in the tree at step " + step);
+            sum += w[e];
+        }
+        assertEquals(weight, sum, 1e-6, "weight of treeEdges() at step " + step);
+        for (int a = 0; a < N; a++) {
+            int b = Math.floorMod(a * 7 + step, N);
+            assertEquals(sets.connected(a, b), mst.connected(a, b), "connected at step " + step);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Random puts, adds and removes on an EdgeHash, checked after every step
+ * against a HashMap<Long, Integer> keyed by the same packed pairs. Few
+ * vertices and a table that stays small keep the probe runs long and
+ * wrapping around the end, so backward shift deletion gets a real workout.
+ */
+class EdgeHashTest {
+
+    final Map<Long, Integer> reference = new HashMap<>();
+
+    @Test
+    void matchesHashMapOnFewVertices() {
+        // 10 vertices are 55 pairs, the table hovers around 16 to 64 slots
+        run(new Random(31), 50000, 10, 24);
+    }
+
+    @Test
+    void matchesHashMapWhileGrowing() {
+        run(new Random(32), 20000, 100, 1500);
+    }
+
+    @Test
+    void matchesHashMapOnLargeIds() {
+        // ids near the top of the int range still pack into distinct non negative keys
+        Random random = new Random(33);
+        EdgeHash hash = new EdgeHash();
+        int[] ids = new int[12];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = Integer.MAX_VALUE - random.nextInt(1 << 20);
+        }
+        ids[0] = 0;
+        ids[1] = Integer.MAX_VALUE;
+        for (int step = 0; step < 20000; step++) {
+            step(hash, random, ids[random.nextInt(ids.length)], ids[random.nextInt(ids.length)], 40, step);
+        }
+    }
+
+    @Test
+    void keyIgnoresOrder() {
+        assertEquals(EdgeHash.key(3, 9), EdgeHash.key(9, 3));
+        assertEquals((3L << 32) | 9, EdgeHash.key(9, 3));
+    }
+
+    private void run(Random random, int steps, int vertices, int targetSize) {
+        EdgeHash hash = new EdgeHash();
+        for (int step = 0; step < steps; step++) {
+            step(hash, random, random.nextInt(vertices), random.nextInt(vertices), targetSize, step);
+            if (step % 10000 == 9999) {
+                hash.clear();
+                reference.clear();
+                check(hash, step);
+            }
+        }
+    }
+
+    private void step(EdgeHash hash, Random random, int u, int v, int targetSize, int step) {
+        long k = EdgeHash.key(u, v);
+        int id = random.nextInt(1000);
+        // remove more often once the table holds about targetSize pairs
+        int op = random.nextInt(reference.size() < targetSize ? 4 : 6);
+        switch (op) {
+            case 0:
+                hash.put(u, v, id);
+                reference.put(k, id);
+                break;
+            case 1:
+                boolean added = hash.add(u, v, id);
+                assertEquals(!reference.containsKey(k), added, "add at step " + step);
+                reference.putIfAbsent(k, id);
+                break;
+            case 2:
+                assertEquals(reference.getOrDefault(k, -1), hash.get(v, u), "get at step " + step);
+                assertEquals(reference.containsKey(k), hash.contains(u, v), "contains at step " + step);
+                break;
+            default:
+                Integer removed = reference.remove(k);
+                assertEquals(removed == null ? -1 : removed, hash.remove(u, v), "remove at step " + step);
+                break;
+        }
+        check(hash, step);
+    }
+
+    // every stored pair is found, and the table holds nothing else
+    private void check(EdgeHash hash, int step) {
+        assertEquals(reference.size(), hash.size, "size at step " + step);
+        int stored = 0;
+        for (int i = 0; i < hash.keys.length; i++) {
+            if (hash.keys[i] != -1L) {
+                stored++;
+                assertEquals(reference.get(hash.keys[i]), hash.values[i], "stale slot at step " + step);
+            }
+        }
+        assertEquals(reference.size(), stored, "slots in use at step " + step);
+        for (Map.Entry<Long, Integer> entry : reference.entrySet()) {
+            int u = (int) (entry.getKey() >>> 32), v = (int) (long) entry.getKey();
+            assertEquals(entry.getValue(), hash.get(u, v), "get at step " + step);
+        }
+    }
+}
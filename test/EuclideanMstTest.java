@@ -0,0 +1,146 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * EuclideanMst against Kruskal on the complete graph over the same points,
+ * including the degenerate inputs the triangulation has to work around:
+ * repeated points, points on one line and integer grids.
+ */
+class EuclideanMstTest {
+
+    @Test
+    void randomPoints() {
+        Random random = new Random(21);
+        for (int round = 0; round < 40; round++) {
+            int n = random.nextInt(200);
+            double[] x = new double[n], y = new double[n];
+            for (int v = 0; v < n; v++) {
+                x[v] = random.nextDouble() * 1000;
+                y[v] = random.nextDouble() * 1000;
+            }
+            check(x, y, "random round " + round);
+        }
+    }
+
+    @Test
+    void tinyInputs() {
+        check(new double[0], new double[0], "no points");
+        check(new double[]{3}, new double[]{4}, "one point");
+        check(new double[]{0, 3}, new double[]{0, 4}, "two points");
+        check(new double[]{0, 3, 1}, new double[]{0, 4, 5}, "three points");
+    }
+
+    @Test
+    void duplicatePoints() {
+        Random random = new Random(22);
+        for (int round = 0; round < 40; round++) {
+            int n = 2 + random.nextInt(150);
+            int distinct = 1 + random.nextInt(Math.max(1, n / 3));
+            double[] px = new double[distinct], py = new double[distinct];
+            for (int i = 0; i < distinct; i++) {
+                px[i] = random.nextDouble() * 100;
+                py[i] = random.nextDouble() * 100;
+            }
+            // every point is one of a few, many times over
+            double[] x = new double[n], y = new double[n];
+            for (int v = 0; v < n; v++) {
+                int i = random.nextInt(distinct);
+                x[v] = px[i];
+                y[v] = py[i];
+            }
+            check(x, y, "duplicates round " + round);
+        }
+        check(new double[]{5, 5, 5, 5}, new double[]{7, 7, 7, 7}, "one point four times");
+    }
+
+    @Test
+    void collinearPoints() {
+        Random random = new Random(23);
+        for (int round = 0; round < 40; round++) {
+            int n = 2 + random.nextInt(150);
+            double[] x = new double[n], y = new double[n];
+            int direction = round % 3;
+            for (int v = 0; v < n; v++) {
+                double t = random.nextInt(500);
+                switch (direction) {
+                    case 0:
+                        x[v] = t;
+                        y[v] = 42;
+                        break;
+                    case 1:
+                        x[v] = -7;
+                        y[v] = t;
+                        break;
+                    default:
+                        x[v] = 3 * t + 1;
+                        y[v] = 2 * t - 5;
+                        break;
+                }
+            }
+            // integer steps along the line, so some points repeat as well
+            check(x, y, "collinear round " + round);
+        }
+    }
+
+    @Test
+    void almostCollinearPoints() {
+        // a line with one point just off it
+        int n = 60;
+        double[] x = new double[n], y = new double[n];
+        for (int v = 0; v < n; v++) {
+            x[v] = v;
+            y[v] = v;
+        }
+        y[n / 2] += 1e-3;
+        check(x, y, "one point off the line");
+    }
+
+    @Test
+    void integerGrid() {
+        Random random = new Random(24);
+        for (int round = 0; round < 10; round++) {
+            int rows = 1 + random.nextInt(15), cols = 1 + random.nextInt(15);
+            double[] x = new double[rows * cols], y = new double[rows * cols];
+            for (int v = 0; v < rows * cols; v++) {
+                x[v] = v % cols;
+                y[v] = v / cols;
+            }
+            check(x, y, "grid " + rows + "x" + cols);
+        }
+    }
+
+    private void check(double[] x, double[] y, String what) {
+        int n = x.length;
+        GraphData points = new GraphData();
+        GraphData complete = new GraphData();
+        for (int v = 0; v < n; v++) {
+            points.addVertex(x[v], y[v]);
+            complete.addVertex(x[v], y[v]);
+        }
+        for (int u = 0; u < n; u++) {
+            for (int v = u + 1; v < n; v++) {
+                complete.addEdge(u, v, complete.lengthSquared(u, v));
+            }
+        }
+        MstResult expected = new KruskalEngine(complete).run();
+
+        EuclideanMst euclidean = new EuclideanMst(points);
+        MstResult actual = euclidean.run();
+        assertEquals(Math.max(0, n - 1), actual.edgeCount, "tree edge count, " + what);
+        assertEquals(expected.weight, actual.weight, 1e-9 * Math.max(1, expected.weight), "tree weight, " + what);
+
+        // the reported edges join every point into one tree
+        UnionFind sets = new UnionFind(Math.max(1, n));
+        double sum = 0;
+        for (int i = 0; i < actual.edgeCount; i++) {
+            int e = actual.edges[i];
+            int u = euclidean.candidates.edgeU[e], v = euclidean.candidates.edgeV[e];
+            assertEquals(true, sets.union(u, v), "cycle in the tree, " + what);
+            sum += points.lengthSquared(u, v);
+        }
+        assertEquals(expected.weight, sum, 1e-9 * Math.max(1, expected.weight), "weight of the edges, " + what);
+    }
+}
@@ -0,0 +1,118 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Random links, cuts and value changes on a LinkCutTree, checked after
+ * every step against a forest kept as plain adjacency lists and searched
+ * from scratch.
+ */
+class LinkCutTreeTest {
+
+    static final int N = 60;
+
+    // reference forest
+    final List<List<Integer>> adj = new ArrayList<>();
+    final double[] value = new double[N];
+
+    @Test
+    void matchesNaiveForest() {
+        Random random = new Random(7);
+        LinkCutTree lct = new LinkCutTree(4); // small so growing is tested too
+        int[] node = new int[N];
+        for (int v = 0; v < N; v++) {
+            value[v] = random.nextDouble();
+            node[v] = lct.newNode(value[v]);
+            adj.add(new ArrayList<>());
+        }
+        List<int[]> edges = new ArrayList<>();
+
+        for (int step = 0; step < 20000; step++) {
+            int op = random.nextInt(4);
+            int a = random.nextInt(N), b = random.nextInt(N);
+            if (op == 0 && a != b && path(a, b) == null) {
+                lct.link(node[a], node[b]);
+                adj.get(a).add(b);
+                adj.get(b).add(a);
+                edges.add(new int[]{a, b});
+            } else if (op == 1 && !edges.isEmpty()) {
+                int[] e = edges.remove(random.nextInt(edges.size()));
+                // either end may be named first
+                if (random.nextBoolean()) {
+                    lct.cut(node[e[0]], node[e[1]]);
+                } else {
+                    lct.cut(node[e[1]], node[e[0]]);
+                }
+                adj.get(e[0]).remove((Integer) e[1]);
+                adj.get(e[1]).remove((Integer) e[0]);
+            } else if (op == 2) {
+                value[a] = random.nextDouble();
+                lct.setValue(node[a], value[a]);
+            }
+
+            List<Integer> p = path(a, b);
+            assertEquals(p != null, lct.connected(node[a], node[b]), "connected at step " + step);
+            int viaCheck = lct.pathMaxIfConnected(node[a], node[b]);
+            if (p == null) {
+                assertEquals(-1, viaCheck, "pathMaxIfConnected at step " + step);
+                continue;
+            }
+            double max = Double.NEGATIVE_INFINITY;
+            for (int v : p) {
+                max = Math.max(max, value[v]);
+            }
+            assertEquals(max, lct.value[lct.pathMax(node[a], node[b])], "pathMax at step " + step);
+            assertEquals(max, lct.value[viaCheck], "pathMaxIfConnected at step " + step);
+        }
+    }
+
+    @Test
+    void freedNodesAreReused() {
+        LinkCutTree lct = new LinkCutTree(2);
+        int a = lct.newNode(1), b = lct.newNode(2), c = lct.newNode(3);
+        lct.link(a, b);
+        lct.link(b, c);
+        lct.cut(b, c);
+        lct.free(c);
+        int d = lct.newNode(5);
+        assertEquals(c, d);
+        assertTrue(lct.connected(a, b));
+        assertFalse(lct.connected(b, d));
+        lct.link(d, a);
+        assertEquals(d, lct.pathMax(b, d));
+    }
+
+    // vertices from a to b in the reference forest, null if they aren't connected
+    private List<Integer> path(int a, int b) {
+        int[] from = new int[N];
+        Arrays.fill(from, -2);
+        from[a] = -1;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(a);
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            for (int v : adj.get(u)) {
+                if (from[v] == -2) {
+                    from[v] = u;
+                    queue.add(v);
+                }
+            }
+        }
+        if (from[b] == -2) {
+            return null;
+        }
+        List<Integer> p = new ArrayList<>();
+        for (int v = b; v != -1; v = from[v]) {
+            p.add(v);
+        }
+        return p;
+    }
+}